@@ -0,0 +1,25 @@
+package dev.ikm.load;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A conversion of OWL axioms to a logical expression with {@code SctOwlUtilities.sctToLogicalExpression} that took
+ * longer than the threshold.
+ */
+@Name("dev.ikm.load.AxiomConversion")
+@Label("Axiom Conversion")
+@Category({"Tinkar", "OWL Import"})
+@Description("A slow sctToLogicalExpression call")
+@Threshold("10 ms")
+class AxiomConversionEvent extends Event {
+    @Label("Class Axiom Characters")
+    int classAxiomLength;
+
+    @Label("Property Axiom Characters")
+    int propertyAxiomLength;
+}
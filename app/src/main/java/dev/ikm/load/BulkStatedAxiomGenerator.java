@@ -0,0 +1,157 @@
+package dev.ikm.load;
+
+import dev.ikm.tinkar.common.id.PublicId;
+import dev.ikm.tinkar.common.service.PrimitiveData;
+import dev.ikm.tinkar.coordinate.Coordinates;
+import dev.ikm.tinkar.coordinate.view.calculator.ViewCalculatorWithCache;
+import dev.ikm.tinkar.entity.SemanticRecord;
+import dev.ikm.tinkar.entity.StampEntity;
+import dev.ikm.tinkar.entity.graph.adaptor.axiom.LogicalExpression;
+import dev.ikm.tinkar.entity.transaction.Transaction;
+import dev.ikm.tinkar.terms.EntityProxy;
+import dev.ikm.tinkar.terms.State;
+import dev.ikm.tinkar.terms.TinkarTerm;
+import org.eclipse.collections.api.factory.primitive.IntLists;
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generates EL++ stated axioms for every concept from the OWL axioms in its
+ * {@link ImportAndTransform#COMMENT_PATTERN} semantics.
+ * <p>
+ * A fixed number of workers, each a virtual thread, claim chunks of concept nids from a shared cursor, build each
+ * concept's {@link LogicalExpression} and write the results to {@link TinkarTerm#EL_PLUS_PLUS_STATED_AXIOMS_PATTERN}
+ * in batches. Each worker reads through a {@link ViewCalculatorWithCache} of its own for the default view, so the
+ * workers do not contend on, or depend on the thread safety of, one calculator's caches. All semantics of a run share
+ * one stamp.
+ * Concepts without active OWL axioms are skipped, and a concept whose conversion fails is logged and skipped without
+ * stopping the run.
+ */
+class BulkStatedAxiomGenerator {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkStatedAxiomGenerator.class);
+    private static final int CHUNK_SIZE = 256;
+    private static final long PROGRESS_INTERVAL_NANOS = 10_000_000_000L;
+
+    private final int parallelism;
+    private final int batchSize;
+    private final StampEntity stamp;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder withoutAxioms = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+
+    BulkStatedAxiomGenerator(Transaction transaction, int parallelism, int batchSize) {
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        PublicId authorId = TinkarTerm.USER.publicId();
+        PublicId moduleId = TinkarTerm.SOLOR_MODULE.publicId();
+        PublicId pathId = TinkarTerm.DEVELOPMENT_PATH.publicId();
+        //State state, long time, PublicId authorId, PublicId moduleId, PublicId pathId
+        this.stamp = transaction.getStamp(State.ACTIVE, System.currentTimeMillis(), authorId, moduleId, pathId);
+    }
+
+    /**
+     * Generates stated axioms for every concept in the store.
+     */
+    void generateAll() {
+        MutableIntList conceptNids = IntLists.mutable.empty().asSynchronized();
+        PrimitiveData.get().forEachConceptNid(conceptNids::add);
+        generate(conceptNids);
+    }
+
+    /**
+     * Generates stated axioms for the given concepts.
+     */
+    void generate(IntList conceptNids) {
+        int[] nids = conceptNids.toArray();
+        AtomicInteger cursor = new AtomicInteger();
+        long start = System.nanoTime();
+        LOG.info("Generating stated axioms for {} concepts with {} workers", nids.length, parallelism);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                workers.add(executor.submit(() -> work(nids, cursor, start)));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        LOG.info("Generated {} stated axioms for {} concepts in {} s ({} concepts/s); {} without OWL axioms, {} failed",
+                written.sum(), nids.length, String.format("%.1f", seconds),
+                String.format("%.0f", nids.length / Math.max(seconds, 1e-9)), withoutAxioms.sum(), failed.sum());
+    }
+
+    private void work(int[] nids, AtomicInteger cursor, long start) {
+        ViewCalculatorWithCache viewCalculator = new ViewCalculatorWithCache(Coordinates.View.DefaultView());
+        List<SemanticRecord> batch = new ArrayList<>(batchSize);
+        long nextProgress = start + PROGRESS_INTERVAL_NANOS;
+        ImportMetrics metrics = ImportMetrics.global();
+        for (int from = cursor.getAndAdd(CHUNK_SIZE); from < nids.length; from = cursor.getAndAdd(CHUNK_SIZE)) {
+            int to = Math.min(from + CHUNK_SIZE, nids.length);
+            long extractionNanos = 0;
+            long allocated = ImportMetrics.currentThreadAllocatedBytes();
+            for (int i = from; i < to; i++) {
+                long extractionStart = System.nanoTime();
+                SemanticRecord statedAxioms = statedAxioms(nids[i], viewCalculator);
+                extractionNanos += System.nanoTime() - extractionStart;
+                if (statedAxioms != null) {
+                    batch.add(statedAxioms);
+                    if (batch.size() == batchSize) {
+                        write(batch);
+                    }
+                }
+            }
+            metrics.record(ImportMetrics.Phase.AXIOM_EXTRACTION, extractionNanos, to - from,
+                    ImportMetrics.allocatedSince(allocated));
+            processed.add(to - from);
+            if (System.nanoTime() > nextProgress) {
+                nextProgress = System.nanoTime() + PROGRESS_INTERVAL_NANOS;
+                LOG.info("Processed {} of {} concepts", processed.sum(), nids.length);
+            }
+        }
+        write(batch);
+    }
+
+    private SemanticRecord statedAxioms(int conceptNid, ViewCalculatorWithCache viewCalculator) {
+        try {
+            LogicalExpression expression = ImportAndTransform.extractLogicalExpression(conceptNid, viewCalculator);
+            if (expression == null) {
+                withoutAxioms.increment();
+                return null;
+            }
+            return ImportAndTransform.statedAxiomSemantic(EntityProxy.Concept.make(conceptNid), stamp, expression);
+        } catch (RuntimeException e) {
+            failed.increment();
+            LOG.warn("Skipping " + PrimitiveData.text(conceptNid) + " (" + conceptNid + "): " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private void write(List<SemanticRecord> batch) {
+        long putNanos = 0;
+        for (SemanticRecord semanticRecord : batch) {
+            putNanos += ImportAndTransform.putEntity(semanticRecord);
+        }
+        ImportMetrics.global().record(ImportMetrics.Phase.PUT_ENTITY, putNanos, batch.size(), -1);
+        written.add(batch.size());
+        batch.clear();
+    }
+}
@@ -0,0 +1,186 @@
+package dev.ikm.load;
+
+import dev.ikm.tinkar.common.service.PrimitiveData;
+import dev.ikm.tinkar.entity.transaction.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Commits a long OWL refset import in chunks, and records an {@link ImportCheckpoint} after each one so an
+ * interrupted run can resume where the last chunk ended.
+ * <p>
+ * A chunk is due every {@value ImportAndTransform#COMMIT_ROWS_PROPERTY} rows or every
+ * {@value ImportAndTransform#COMMIT_SECONDS_PROPERTY} seconds, whichever comes first; with neither set the import
+ * runs under one transaction as before. The readers only ask at the start of a new refset member, once every earlier
+ * row has been written, so a chunk never ends part way through a member. Committing replaces the
+ * {@link #transaction() current transaction} with a new one, which the stamp cache and everything written after the
+ * import pick up. A release with several OWL refsets reads them one after another through the same instance: each
+ * {@link #start} begins counting rows and time for its file afresh, and {@link #endFile} commits the end of a file so
+ * its checkpoint shows it was read in full. Used by the single reader thread of either import path, so it is not
+ * thread safe.
+ */
+final class ChunkedCommits {
+    private static final Logger LOG = LoggerFactory.getLogger(ChunkedCommits.class);
+
+    private final Path dataStoreRoot;
+    private final long commitRows;
+    private final long commitNanos;
+    private final LongSupplier nanoTime;
+    private final Set<String> startedEntries = new LinkedHashSet<>();
+    private volatile Transaction transaction;
+    private String releaseIdentity;
+    private String entryName;
+    private boolean sorted;
+    private long effectiveTimeAfter;
+    private long rowsAtLastCommit;
+    private long recordsBeforeResume;
+    private long lastCommitNanos;
+    private int commits;
+
+    /**
+     * @param commitRows    rows per chunk, or zero for no row limit
+     * @param commitSeconds seconds per chunk, or zero for no time limit
+     */
+    ChunkedCommits(Transaction transaction, Path dataStoreRoot, long commitRows, long commitSeconds) {
+        this(transaction, dataStoreRoot, commitRows, commitSeconds, System::nanoTime);
+    }
+
+    /**
+     * @param nanoTime the clock chunks are timed with, {@link System#nanoTime()} outside of tests
+     */
+    ChunkedCommits(Transaction transaction, Path dataStoreRoot, long commitRows, long commitSeconds,
+                   LongSupplier nanoTime) {
+        if (commitRows < 0 || commitSeconds < 0) {
+            throw new IllegalArgumentException("commitRows and commitSeconds must not be negative: "
+                    + commitRows + ", " + commitSeconds);
+        }
+        this.transaction = transaction;
+        this.dataStoreRoot = dataStoreRoot;
+        this.commitRows = commitRows;
+        this.commitNanos = TimeUnit.SECONDS.toNanos(commitSeconds);
+        this.nanoTime = nanoTime;
+        this.lastCommitNanos = nanoTime.getAsLong();
+    }
+
+    static ChunkedCommits fromSystemProperties(Transaction transaction, Path dataStoreRoot) {
+        return new ChunkedCommits(transaction, dataStoreRoot,
+                Long.getLong(ImportAndTransform.COMMIT_ROWS_PROPERTY, 0),
+                Long.getLong(ImportAndTransform.COMMIT_SECONDS_PROPERTY, 0));
+    }
+
+    /**
+     * @return the transaction rows and axioms are currently written under
+     */
+    Transaction transaction() {
+        return transaction;
+    }
+
+    /**
+     * Names the rows the import is about to read, and finds the checkpoint of an earlier run that read the same rows
+     * and did not finish. Rows, records and the time to the next chunk are counted from here, or from the
+     * checkpoint when there is one.
+     *
+     * @return the checkpoint to resume from, or empty to start from the first row
+     */
+    Optional<ImportCheckpoint> start(String releaseIdentity, String entryName, boolean sorted,
+                                     EffectiveTimeFilter filter) throws IOException {
+        this.releaseIdentity = releaseIdentity;
+        this.entryName = entryName;
+        this.sorted = sorted;
+        this.effectiveTimeAfter = filter.after();
+        rowsAtLastCommit = 0;
+        recordsBeforeResume = 0;
+        lastCommitNanos = nanoTime.getAsLong();
+        startedEntries.add(entryName);
+        Optional<ImportCheckpoint> checkpoint = ImportCheckpoint.load(dataStoreRoot, entryName);
+        if (checkpoint.isPresent() && !checkpoint.get().appliesTo(releaseIdentity, entryName, sorted, effectiveTimeAfter)) {
+            LOG.warn("Ignoring the checkpoint of an import of {} from {}", checkpoint.get().releaseIdentity(),
+                    checkpoint.get().entryName());
+            return Optional.empty();
+        }
+        checkpoint.ifPresent(resumed -> {
+            LOG.info("Resuming after member {} at offset {}, {} records committed at {}", resumed.lastMemberId(),
+                    resumed.offset(), resumed.recordCount(), resumed.committedAt());
+            rowsAtLastCommit = resumed.rowCount();
+            recordsBeforeResume = resumed.recordCount();
+        });
+        return checkpoint;
+    }
+
+    /**
+     * @return the records an interrupted run committed before the checkpoint this run resumed from
+     */
+    long recordsBeforeResume() {
+        return recordsBeforeResume;
+    }
+
+    /**
+     * @param rows the rows read so far, including any read before resuming
+     * @return true when rows have been read since the last commit and they should be committed now
+     */
+    boolean due(long rows) {
+        return rows > rowsAtLastCommit && (commitRows > 0 && rows - rowsAtLastCommit >= commitRows
+                || commitNanos > 0 && nanoTime.getAsLong() - lastCommitNanos >= commitNanos);
+    }
+
+    /**
+     * Commits and saves everything written so far, records the checkpoint, and starts a new transaction. The caller
+     * must have written every row before {@code offset} and must not write any more until this returns.
+     *
+     * @param offset       where the next row starts in the source
+     * @param lastMemberId the member of the last row written
+     * @param rows         the rows read before {@code offset}, including any read before resuming
+     * @param records      the records this run has written
+     */
+    void commit(long offset, UUID lastMemberId, long rows, long records) throws IOException {
+        ImportMetrics metrics = ImportMetrics.global();
+        try (ImportMetrics.Span span = metrics.span(ImportMetrics.Phase.COMMIT)) {
+            transaction.commit();
+        }
+        try (ImportMetrics.Span span = metrics.span(ImportMetrics.Phase.SAVE)) {
+            PrimitiveData.save();
+        }
+        new ImportCheckpoint(releaseIdentity, entryName, sorted, effectiveTimeAfter, offset, lastMemberId, rows,
+                recordsBeforeResume + records, Instant.now()).save(dataStoreRoot);
+        transaction = Transaction.make();
+        commits++;
+        LOG.info("Committed chunk {} of {} rows in {} ms, next row at offset {}", commits, rows - rowsAtLastCommit,
+                TimeUnit.NANOSECONDS.toMillis(nanoTime.getAsLong() - lastCommitNanos), offset);
+        rowsAtLastCommit = rows;
+        lastCommitNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * Commits the rows read since the last chunk once the file is exhausted, when chunks are committed at all, so a
+     * run interrupted while reading a later file of the release resumes this one after its last row.
+     *
+     * @param offset       the end of the source
+     * @param lastMemberId the member of the last row, or null when no row was read
+     * @param rows         the rows read, including any read before resuming
+     * @param records      the records this run has written
+     */
+    void endFile(long offset, UUID lastMemberId, long rows, long records) throws IOException {
+        if ((commitRows > 0 || commitNanos > 0) && rows > rowsAtLastCommit) {
+            commit(offset, lastMemberId, rows, records);
+        }
+    }
+
+    /**
+     * Removes the checkpoints of the files read once the whole import has been committed and recorded.
+     */
+    void finish() throws IOException {
+        for (String startedEntry : startedEntries) {
+            ImportCheckpoint.delete(dataStoreRoot, startedEntry);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package dev.ikm.load;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+/**
+ * An open addressing hash map from primitive {@code long} keys to values, for caches shared by import workers.
+ * <p>
+ * Lookups take no lock: a writer publishes the key of a slot before its value, so a reader that finds a value has
+ * found a complete entry, and a reader that races a writer just reports a miss. Writers are serialized on the map
+ * and resize by building a new table before publishing it. Entries are never removed.
+ */
+final class ConcurrentLongMap<V> {
+    private static final int MIN_CAPACITY = 64;
+
+    private static final class Table<V> {
+        final AtomicLongArray keys;
+        final AtomicReferenceArray<V> values;
+        final int mask;
+
+        Table(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.values = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+    }
+
+    private volatile Table<V> table;
+    /** Zero marks an empty slot, so the value for key zero lives outside the table. */
+    private volatile V zeroKeyValue;
+    private int size;
+
+    ConcurrentLongMap() {
+        this(MIN_CAPACITY);
+    }
+
+    ConcurrentLongMap(int expectedSize) {
+        this.table = new Table<>(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return the value for the key, or null when absent
+     */
+    V get(long key) {
+        if (key == 0) {
+            return zeroKeyValue;
+        }
+        Table<V> current = table;
+        for (int slot = slot(key, current.mask); ; slot = (slot + 1) & current.mask) {
+            long slotKey = current.keys.get(slot);
+            if (slotKey == key) {
+                return current.values.get(slot);
+            }
+            if (slotKey == 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Returns the value for the key, calling {@code valueFunction} at most once per key across all threads to create
+     * it. Creation holds the map's write lock, so the function should be cheap relative to the hit path.
+     */
+    V computeIfAbsent(long key, LongFunction<V> valueFunction) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        synchronized (this) {
+            value = get(key);
+            if (value == null) {
+                value = valueFunction.apply(key);
+                insert(key, value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Stores the value unless the key already has one, for values that are equal no matter which thread computed
+     * them.
+     *
+     * @return the value now stored for the key
+     */
+    V putIfAbsent(long key, V value) {
+        synchronized (this) {
+            V existing = get(key);
+            if (existing != null) {
+                return existing;
+            }
+            insert(key, value);
+            return value;
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private void insert(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Null value for key " + key);
+        }
+        size++;
+        if (key == 0) {
+            zeroKeyValue = value;
+            return;
+        }
+        Table<V> current = table;
+        if (size * 2 > current.mask + 1) {
+            current = resize(current);
+        }
+        place(current, key, value);
+    }
+
+    private Table<V> resize(Table<V> current) {
+        Table<V> larger = new Table<>((current.mask + 1) * 2);
+        for (int slot = 0; slot <= current.mask; slot++) {
+            long key = current.keys.get(slot);
+            if (key != 0) {
+                place(larger, key, current.values.get(slot));
+            }
+        }
+        table = larger;
+        return larger;
+    }
+
+    private static <V> void place(Table<V> table, long key, V value) {
+        int slot = slot(key, table.mask);
+        while (table.keys.get(slot) != 0) {
+            slot = (slot + 1) & table.mask;
+        }
+        table.keys.set(slot, key);
+        table.values.set(slot, value);
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
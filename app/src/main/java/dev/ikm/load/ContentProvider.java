@@ -0,0 +1,239 @@
+package dev.ikm.load;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A way to pass around closeable input streams for doing imports without passing around all the zip file mess.
+ * @author <a href="mailto:daniel.armbrust.list@sagebits.net">Dan Armbrust</a>
+ */
+public class ContentProvider implements Supplier<ContentStreamProvider>
+{
+    String streamSourceName;
+    Supplier<ContentStreamProvider> contentStream;
+    private Path path;
+    private Supplier<byte[]> itemByteSupplier;
+
+    public ContentProvider(Path path)
+    {
+        this.streamSourceName = path.toString();
+        this.path = path;
+        this.contentStream = () -> new ContentStreamProvider()
+        {
+            @Override
+            public void close() throws Exception
+            {
+                // noop
+            }
+
+            @Override
+            public InputStream get()
+            {
+                try
+                {
+                    return Files.newInputStream(path);
+                }
+                catch (IOException e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+
+    public ContentProvider(File zipFile, ZipEntry entry)
+    {
+        this(zipFile, null, entry, null);
+    }
+
+    public ContentProvider(String streamSourceName, Supplier<byte[]> unzippedOuterBytes)
+    {
+        this.streamSourceName = streamSourceName;
+        this.itemByteSupplier = unzippedOuterBytes;
+        this.contentStream = () -> new ContentStreamProvider()
+        {
+            @Override
+            public void close() throws Exception
+            {
+                itemByteSupplier = null;
+            }
+
+            @Override
+            public InputStream get()
+            {
+                return new ByteArrayInputStream(ContentProvider.this.itemByteSupplier.get());
+            }
+        };
+    }
+
+    /**
+     * Reads {@code entryName} from an archive nested inside another archive. The inner archive is inflated and
+     * indexed once by {@link NestedZipArchive}, and shared with every other provider reading from it. Each
+     * {@link ContentStreamProvider} holds the archive until it is closed; the caller keeps its own hold from
+     * {@link NestedZipArchive#open(File, ZipEntry)} while it still hands out streams.
+     */
+    public ContentProvider(String streamSourceName, NestedZipArchive archive, String entryName)
+    {
+        this.streamSourceName = streamSourceName;
+        this.contentStream = () ->
+        {
+            archive.retain();
+            return new ContentStreamProvider()
+            {
+                @Override
+                public void close() throws Exception
+                {
+                    archive.release();
+                }
+
+                @Override
+                public InputStream get()
+                {
+                    try
+                    {
+                        return archive.getInputStream(entryName);
+                    }
+                    catch (IOException e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+                }
+            };
+        };
+    }
+
+    /**
+     * Reads {@code entryName} from an archive nested inside another archive, which is only inflated, through
+     * {@link NestedZipArchive}, once a stream is first requested. Each {@link ContentStreamProvider} holds the archive
+     * until it is closed, and the cache keeps it for the next provider reading from it.
+     */
+    public ContentProvider(File zipFile, ZipEntry nestedZipEntry, String entryName)
+    {
+        this.streamSourceName = zipFile.getName() + ":" + nestedZipEntry.getName() + ":" + entryName;
+        this.contentStream = () -> new ContentStreamProvider()
+        {
+            private NestedZipArchive archive;
+
+            @Override
+            public void close() throws Exception
+            {
+                if (archive != null)
+                {
+                    archive.release();
+                    archive = null;
+                }
+            }
+
+            @Override
+            public InputStream get()
+            {
+                try
+                {
+                    if (archive == null)
+                    {
+                        archive = NestedZipArchive.open(zipFile, nestedZipEntry);
+                    }
+                    return archive.getInputStream(entryName);
+                }
+                catch (IOException e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+
+    //TODO replace this constructor with the approach that uses the supplier constructor, to keep all of the zip
+    // handling logic in the place where it comes from, and supports paths, instead of just files.
+    /**
+     * @param unzippedOuterBytes no longer used; nested entries are streamed from a {@link NestedZipArchive} instead of
+     *                           being copied into an array
+     */
+    @Deprecated
+    public ContentProvider(File zipFile, ZipEntry nestedZipFile, ZipEntry entry, byte[] unzippedOuterBytes)
+    {
+        streamSourceName = (nestedZipFile == null ? (zipFile.getName() + ":" + entry.getName())
+                : (zipFile.getName() + ":" + nestedZipFile.getName() + ":" + entry.getName()));
+
+        contentStream = () -> new ContentStreamProvider()
+        {
+            private ZipFile zipFileHandle;
+            private NestedZipArchive nestedArchive;
+
+            @Override
+            public void close() throws Exception
+            {
+                if (zipFileHandle != null)
+                {
+                    zipFileHandle.close();
+                }
+                if (nestedArchive != null)
+                {
+                    nestedArchive.release();
+                    nestedArchive = null;
+                }
+            }
+
+            @Override
+            public InputStream get()
+            {
+                try
+                {
+                    if (nestedZipFile == null)
+                    {
+                        zipFileHandle = new ZipFile(zipFile, Charset.forName("UTF-8"));
+                        return zipFileHandle.getInputStream(entry);
+                    }
+                    else
+                    {
+                        if (nestedArchive == null)
+                        {
+                            nestedArchive = NestedZipArchive.open(zipFile, nestedZipFile);
+                        }
+                        return nestedArchive.getInputStream(entry.getName());
+                    }
+                }
+                catch (IOException e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+
+    public String getStreamSourceName()
+    {
+        return streamSourceName;
+    }
+
+    /**
+     * Opens an RF2 tokenizer over this content. Plain files are memory mapped, everything else is read through the
+     * stream of a new {@link ContentStreamProvider}, which is closed along with the tokenizer.
+     */
+    public Rf2Tokenizer tokenizer() throws IOException
+    {
+        if (path != null)
+        {
+            return Rf2Tokenizer.mapped(path);
+        }
+        ContentStreamProvider streamProvider = get();
+        return Rf2Tokenizer.streaming(streamProvider.get(), streamProvider);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ContentStreamProvider get()
+    {
+        return contentStream.get();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package dev.ikm.load;
+
+/**
+ * Decides which refset rows an import reads, by effective time, and remembers the latest effective time it let
+ * through. Used by the single reader thread of either import path, so it is not thread safe.
+ */
+final class EffectiveTimeFilter {
+    private final long after;
+    private long latestAccepted = Long.MIN_VALUE;
+    private long skipped;
+
+    private EffectiveTimeFilter(long after) {
+        this.after = after;
+    }
+
+    static EffectiveTimeFilter all() {
+        return new EffectiveTimeFilter(Long.MIN_VALUE);
+    }
+
+    /**
+     * @param effectiveTimeInEpochMs rows at or before this time are skipped
+     */
+    static EffectiveTimeFilter after(long effectiveTimeInEpochMs) {
+        return new EffectiveTimeFilter(effectiveTimeInEpochMs);
+    }
+
+    /**
+     * @return the time at or before which rows are skipped, {@link Long#MIN_VALUE} when none are
+     */
+    long after() {
+        return after;
+    }
+
+    /**
+     * Checks the current row, reading only its effective time.
+     */
+    boolean accept(OwlRefsetRows rows) {
+        long effectiveTime = rows.effectiveTime();
+        if (effectiveTime <= after) {
+            skipped++;
+            return false;
+        }
+        latestAccepted = Math.max(latestAccepted, effectiveTime);
+        return true;
+    }
+
+    /**
+     * @return the latest effective time accepted, or {@link Long#MIN_VALUE} when no row was
+     */
+    long latestAccepted() {
+        return latestAccepted;
+    }
+
+    long skipped() {
+        return skipped;
+    }
+}
@@ -0,0 +1,36 @@
+package dev.ikm.load;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * File system helpers for the work directories of the import, such as the runs of an external sort.
+ */
+final class FileTrees {
+    private FileTrees() {
+    }
+
+    /**
+     * Deletes a directory and everything in it; a path that does not exist is left alone.
+     */
+    static void deleteRecursively(Path directory) throws IOException {
+        if (Files.notExists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
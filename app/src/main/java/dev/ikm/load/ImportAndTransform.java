@@ -0,0 +1,749 @@
+package dev.ikm.load;
+
+import dev.ikm.tinkar.common.id.IntIds;
+import dev.ikm.tinkar.common.id.PublicId;
+import dev.ikm.tinkar.common.service.PrimitiveData;
+import dev.ikm.tinkar.common.service.ServiceKeys;
+import dev.ikm.tinkar.common.service.ServiceProperties;
+import dev.ikm.tinkar.common.util.uuid.UuidT5Generator;
+import dev.ikm.tinkar.coordinate.Calculators;
+import dev.ikm.tinkar.coordinate.view.calculator.ViewCalculator;
+import dev.ikm.tinkar.entity.*;
+import dev.ikm.tinkar.entity.graph.adaptor.axiom.LogicalExpression;
+import dev.ikm.tinkar.entity.transaction.Transaction;
+import dev.ikm.tinkar.ext.lang.owl.SctOwlUtilities;
+import dev.ikm.tinkar.terms.EntityProxy;
+import dev.ikm.tinkar.terms.State;
+import dev.ikm.tinkar.terms.TinkarTerm;
+import org.eclipse.collections.api.factory.Lists;
+import org.eclipse.collections.api.factory.primitive.IntLists;
+import org.eclipse.collections.api.factory.primitive.IntSets;
+import org.eclipse.collections.api.list.primitive.ImmutableIntList;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Hello world!
+ *
+ */
+public class ImportAndTransform
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ImportAndTransform.class);
+    public static final EntityProxy.Pattern COMMENT_PATTERN =
+            EntityProxy.Pattern.make("Comment pattern", UUID.fromString("3734fb0a-4c14-5831-9a61-4743af609e7a"));
+
+    /**
+     * The build directory of the app module, which its validate phase fills with the terminology release and the
+     * starting database, and under which a run keeps its database, column caches and metrics. Defaults to
+     * {@code target} in the working directory, which is right when running from {@code app}; from the repository
+     * root, pass {@code -Dowl.import.buildDirectory=app/target}.
+     */
+    static final String BUILD_DIRECTORY_PROPERTY = "owl.import.buildDirectory";
+    /** Number of parse/build workers for the OWL refset import; 1 selects the serial import. */
+    static final String PARALLELISM_PROPERTY = "owl.import.parallelism";
+    /** Number of rows handed to a worker at a time by the pipelined import. */
+    static final String BATCH_SIZE_PROPERTY = "owl.import.batchSize";
+    /** Capacity, in batches, of each queue between the pipelined import stages. */
+    static final String QUEUE_CAPACITY_PROPERTY = "owl.import.queueCapacity";
+    /** When true, the SCTID resolution cache is loaded from the concepts in the store before importing. */
+    static final String PREWARM_PROPERTY = "owl.import.prewarm";
+    /**
+     * When true, stated axioms are generated in bulk instead of for the three sample concepts: for every concept in the
+     * store in {@value #MODE_PROPERTY} {@code full}, otherwise for the concepts whose OWL semantics the run wrote.
+     */
+    static final String BULK_AXIOMS_PROPERTY = "owl.axioms.bulk";
+    /**
+     * {@code full} (the default) imports every row of the Full OWL refset; {@code incremental} imports only rows newer
+     * than the last import recorded in the database, and {@code delta} reads those rows from the Delta file instead,
+     * which is only complete when the last import was of the preceding release.
+     */
+    static final String MODE_PROPERTY = "owl.import.mode";
+    /**
+     * When true, the refset rows are sorted by member id on disk before importing, so the versions of every member
+     * are written as one semantic even when the file does not list them together.
+     */
+    static final String SORT_PROPERTY = "owl.import.sort";
+    /**
+     * Rows of the OWL refset to read between commits; with this or {@value #COMMIT_SECONDS_PROPERTY} set, the import
+     * commits and saves in chunks and records a checkpoint to resume from after each one.
+     */
+    static final String COMMIT_ROWS_PROPERTY = "owl.import.commitRows";
+    /** Seconds between chunk commits of the OWL refset import. */
+    static final String COMMIT_SECONDS_PROPERTY = "owl.import.commitSeconds";
+    /**
+     * When true, the OWL expression refsets are found anywhere in the release, including its nested archives, and
+     * every one in the Full folder is imported, rather than only the International refset at its usual entry.
+     */
+    static final String RELEASE_PROPERTY = "owl.import.release";
+    /** The most rows a release import holds read but not yet written, across all the files it is loading. */
+    static final String ROWS_IN_FLIGHT_PROPERTY = "owl.import.rowsInFlight";
+    /**
+     * When true (the default), the OWL refset rows are written to a columnar cache as they are first read, and later
+     * runs read that cache instead of the RF2 text for as long as the zip entry is unchanged.
+     */
+    static final String CACHE_PROPERTY = "owl.import.cache";
+    /** The directory of the OWL refset column caches; {@code owl-refset-cache} in the build directory by default. */
+    static final String CACHE_DIRECTORY_PROPERTY = "owl.import.cacheDirectory";
+    /** When true (the default), the OWL expressions in a column cache are deflated. */
+    static final String CACHE_COMPRESS_PROPERTY = "owl.import.cacheCompress";
+    /**
+     * {@code none} (the default) or {@code full}: whether every stated axiom is classified after this run's axioms are
+     * written.
+     */
+    static final String CLASSIFY_PROPERTY = "owl.classify";
+    /** The simple class name of the {@code ReasonerService} to classify with. */
+    static final String REASONER_PROPERTY = "owl.classify.reasoner";
+
+    /** The most concepts whose logical expressions are kept for reuse; 0 turns the cache off. */
+    static final String EXPRESSION_CACHE_SIZE_PROPERTY = "owl.axioms.cacheSize";
+    /** The most characters of OWL axioms the kept logical expressions may have been built from. */
+    static final String EXPRESSION_CACHE_WEIGHT_PROPERTY = "owl.axioms.cacheWeight";
+    /** The most SCTIDs whose public id text the OWL axiom lexers keep; 0 turns the cache off. */
+    static final String PUBLIC_ID_CACHE_SIZE_PROPERTY = "owl.axioms.publicIdCacheSize";
+
+    /**
+     * Where the per-phase metrics of a run are written as JSON; {@code owl-import-metrics.json} in the build directory
+     * by default.
+     */
+    static final String METRICS_FILE_PROPERTY = "owl.metrics.file";
+
+    static final String OWL_EXPRESSION_FULL_ENTRY =
+            "SnomedCT_InternationalRF2_PRODUCTION_20241001T120000Z/Full/Terminology/sct2_sRefset_OWLExpressionFull_INT_20241001.txt";
+
+    private static volatile OwlSemanticIndex owlSemanticIndex;
+    private static final LogicalExpressionCache LOGICAL_EXPRESSIONS = LogicalExpressionCache.fromSystemProperties();
+
+    enum Fields {
+        ID, EFFECTIVE_TIME, ACTIVE, MODULE_ID, REFSET_ID, REFERENCED_COMPONENT_ID, OWL_EXPRESSION;
+    }
+    public static void main( String[] args )
+    {
+
+        // Open database
+
+        Path buildDirectory = buildDirectory();
+        LOG.info("Build directory: " + buildDirectory.toAbsolutePath());
+        File dataStoreRoot = buildDirectory.resolve("database/tinkar-snomedct-international-20241001").toFile();
+        ServiceProperties.set(ServiceKeys.DATA_STORE_ROOT, dataStoreRoot);
+        LOG.info("JVM Version: " + System.getProperty("java.version"));
+        LOG.info("JVM Name: " + System.getProperty("java.vm.name"));
+        LOG.info(ServiceProperties.jvmUuid());
+        PrimitiveData.selectControllerByName("Open SpinedArrayStore");
+        PrimitiveData.start();
+        ChunkedCommits commits = ChunkedCommits.fromSystemProperties(Transaction.make(), dataStoreRoot.toPath());
+
+
+        ImportMetrics metrics = ImportMetrics.global();
+        metrics.registerCache("logicalExpressions", LOGICAL_EXPRESSIONS);
+
+        // File is brought in during the verify phase, so is available during project run.
+        OwlImport owlImport;
+        File release = buildDirectory.resolve("terminology/snomed-ct-us-1000124_20240901T120000Z.zip").toFile();
+        try (ZipFile zipFile = new ZipFile(release, Charset.forName("UTF-8"))) {
+            if (Boolean.getBoolean(RELEASE_PROPERTY)) {
+                owlImport = importRelease(zipFile, dataStoreRoot.toPath(), commits);
+            } else {
+                owlImport = importOwlRefset(zipFile, dataStoreRoot.toPath(), commits);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        Transaction transaction = commits.transaction();
+        OwlClassifier classifier = OwlClassifier.fromSystemProperties();
+        owlSemanticIndex = owlImport.index();
+        LOG.info( "Indexed {} OWL semantics of {} concepts", owlSemanticIndex.semanticCount(), owlSemanticIndex.conceptCount() );
+        findRecordsForMeglumineAntimoniateOnlyProduct();
+        try (ImportMetrics.Span span = metrics.span(ImportMetrics.Phase.CONCEPT_SCAN)) {
+            span.items(countOwlRecordsForConcepts(owlSemanticIndex));
+        }
+        if (Boolean.getBoolean(BULK_AXIOMS_PROPERTY)) {
+            BulkStatedAxiomGenerator generator = new BulkStatedAxiomGenerator(transaction,
+                    Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors()),
+                    Integer.getInteger(BATCH_SIZE_PROPERTY, 1000));
+            if (System.getProperty(MODE_PROPERTY, "full").equalsIgnoreCase("full")) {
+                generator.generateAll();
+            } else {
+                generator.generate(owlImport.changedConcepts());
+            }
+        } else {
+            processLymeDiseaseOfInnerEar(transaction);
+            processMeglumineAntimoniate(transaction);
+            processActiveIngredient(transaction);
+        }
+        try (ImportMetrics.Span span = metrics.span(ImportMetrics.Phase.COMMIT)) {
+            transaction.commit();
+        }
+        if (classifier != null) {
+            try {
+                classifier.classify();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+        try (ImportMetrics.Span span = metrics.span(ImportMetrics.Phase.SAVE)) {
+            PrimitiveData.save();
+        }
+        try {
+            owlImport.save(dataStoreRoot.toPath());
+            commits.finish();
+            metrics.logSummary();
+            String metricsFile = System.getProperty(METRICS_FILE_PROPERTY);
+            metrics.writeSummary(metricsFile == null ? buildDirectory.resolve("owl-import-metrics.json")
+                    : Path.of(metricsFile));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the {@value #BUILD_DIRECTORY_PROPERTY} the terminology and database are found in
+     */
+    static Path buildDirectory() {
+        return Path.of(System.getProperty(BUILD_DIRECTORY_PROPERTY, "target"));
+    }
+
+    /**
+     * The outcome of an OWL refset import: the index of every OWL semantic in the store, the concepts whose OWL
+     * semantics this run wrote, and the state to record once the run has been saved. The state is null when the
+     * release had already been imported and nothing was read.
+     */
+    private record OwlImport(OwlSemanticIndex index, ImmutableIntList changedConcepts, OwlImportState state) {
+        /**
+         * Records the import next to the database. The state file is written last, so a run interrupted before
+         * this point is imported again in full rather than skipped.
+         */
+        void save(Path dataStoreRoot) throws IOException {
+            if (state == null) {
+                return;
+            }
+            index.save(dataStoreRoot);
+            state.save(dataStoreRoot);
+        }
+
+        /**
+         * Combines the imports of the OWL refset files of one release, which were checked against the same previous
+         * state and so either all read their rows or all skipped them.
+         */
+        static OwlImport merge(List<OwlImport> imports, String releaseIdentity) {
+            if (imports.size() == 1 || imports.get(0).state() == null) {
+                return imports.get(0);
+            }
+            OwlSemanticIndex.Builder index = OwlSemanticIndex.builder();
+            MutableIntSet changedConcepts = IntSets.mutable.empty();
+            long lastEffectiveTime = Long.MIN_VALUE;
+            long rowCount = 0;
+            for (OwlImport imported : imports) {
+                index.addAll(imported.index());
+                changedConcepts.addAll(imported.changedConcepts());
+                lastEffectiveTime = Math.max(lastEffectiveTime, imported.state().lastEffectiveTime());
+                rowCount += imported.state().rowCount();
+            }
+            return new OwlImport(index.build(), changedConcepts.toSortedList().toImmutable(),
+                    new OwlImportState(releaseIdentity, lastEffectiveTime, rowCount, Instant.now()));
+        }
+    }
+
+    /**
+     * Imports the OWL expression refsets in the Full folder of the release; the other RF2 files have no importer here
+     * and are not read. A release with several OWL expression refsets, such as an edition with the International
+     * refset and its extension's, imports them one after another as one import recorded under the identities of them
+     * all.
+     * <p>
+     * The refsets share the chunk commits and their transaction, so the release import loads them on a single thread
+     * and the pipelined import of each refset runs on all {@value #PARALLELISM_PROPERTY} threads.
+     */
+    private static OwlImport importRelease(ZipFile zipFile, Path dataStoreRoot, ChunkedCommits commits) throws Exception {
+        int parallelism = Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors());
+        String archiveName = new File(zipFile.getName()).getName();
+        Rf2Release release = Rf2Release.open(new File(zipFile.getName()));
+        List<Rf2ReleaseFile> owlRefsets = release.files("Full").stream()
+                .filter(file -> file.type() == Rf2FileType.OWL_EXPRESSION_REFSET)
+                .toList();
+        if (owlRefsets.isEmpty()) {
+            throw new IllegalStateException("No OWL expression refset in the Full folder of " + zipFile.getName());
+        }
+        String releaseIdentity = owlRefsets.stream()
+                .map(file -> releaseIdentity(archiveName, file))
+                .sorted()
+                .collect(Collectors.joining(" "));
+        Map<String, Rf2ReleaseFile> deltas = release.files("Delta").stream()
+                .filter(file -> file.type() == Rf2FileType.OWL_EXPRESSION_REFSET)
+                .collect(Collectors.toMap(Rf2ReleaseFile::entryName, Function.identity()));
+        List<OwlImport> imports = new ArrayList<>();
+        new Rf2ReleaseImport(release.files("Full"), 1,
+                new InFlightRows(Integer.getInteger(ROWS_IN_FLIGHT_PROPERTY, 1_000_000)))
+                .loader(file -> file.type() == Rf2FileType.OWL_EXPRESSION_REFSET, (file, inFlight) -> {
+                    OwlImport imported = importOwlRefset(releaseIdentity, file,
+                            deltas.get(deltaEntryName(file.entryName())), dataStoreRoot, commits, inFlight,
+                            parallelism);
+                    imports.add(imported);
+                    return imported.state() == null ? 0 : imported.state().rowCount();
+                })
+                .run();
+        return OwlImport.merge(imports, releaseIdentity);
+    }
+
+    /**
+     * Imports the OWL expression refset of the release from its {@value #OWL_EXPRESSION_FULL_ENTRY} entry.
+     */
+    private static OwlImport importOwlRefset(ZipFile zipFile, Path dataStoreRoot, ChunkedCommits commits) throws Exception {
+        File archive = new File(zipFile.getName());
+        ZipEntry fullEntry = zipFile.getEntry(OWL_EXPRESSION_FULL_ENTRY);
+        if (fullEntry == null) {
+            throw new IllegalStateException("No " + OWL_EXPRESSION_FULL_ENTRY + " in " + zipFile.getName());
+        }
+        Rf2ReleaseFile full = Rf2ReleaseFile.of(fullEntry, new ContentProvider(archive, fullEntry)).orElseThrow();
+        ZipEntry deltaEntry = zipFile.getEntry(deltaEntryName(fullEntry.getName()));
+        Rf2ReleaseFile delta = deltaEntry == null ? null
+                : Rf2ReleaseFile.of(deltaEntry, new ContentProvider(archive, deltaEntry)).orElseThrow();
+        return importOwlRefset(releaseIdentity(archive.getName(), full), full, delta, dataStoreRoot, commits,
+                InFlightRows.unlimited(), Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @return the archive, entry and CRC of an OWL refset file, which change whenever its rows do
+     */
+    private static String releaseIdentity(String archiveName, Rf2ReleaseFile full) {
+        return archiveName + "!" + full.entryName() + "@" + Long.toHexString(full.entry().getCrc());
+    }
+
+    private static String deltaEntryName(String fullEntryName) {
+        return fullEntryName.replace("/Full/", "/Delta/").replace("OWLExpressionFull", "OWLExpressionDelta");
+    }
+
+    /**
+     * Imports an OWL expression refset file. In {@value #MODE_PROPERTY} {@code incremental} or {@code delta} mode
+     * with a previous import recorded in the data store root, only rows with an effective time after the last one
+     * imported are written, read from the Full file or, in {@code delta} mode, from the Delta file; a release that
+     * has already been imported is not read at all. A run that left a checkpoint for the same rows resumes after it.
+     * The rows are read from the {@link OwlRefsetColumnCache} of the file when an earlier run wrote it.
+     *
+     * @param releaseIdentity what the previous import must have recorded for the release to be skipped
+     * @param delta           the Delta file of the same refset, or null when the release has none
+     * @param parallelism     the parse/build workers to import with; 1 imports serially
+     */
+    private static OwlImport importOwlRefset(String releaseIdentity, Rf2ReleaseFile full, Rf2ReleaseFile delta,
+                                             Path dataStoreRoot, ChunkedCommits commits, InFlightRows inFlight,
+                                             int parallelism) throws Exception {
+        String mode = System.getProperty(MODE_PROPERTY, "full");
+        Optional<OwlImportState> previousState = Optional.empty();
+        Optional<OwlSemanticIndex> previousIndex = Optional.empty();
+        if (!mode.equalsIgnoreCase("full")) {
+            previousState = OwlImportState.load(dataStoreRoot);
+            previousIndex = OwlSemanticIndex.open(dataStoreRoot);
+            if (previousState.isEmpty() || previousIndex.isEmpty()) {
+                LOG.info( "No previous OWL import recorded in {}, importing the full release", dataStoreRoot );
+                previousState = Optional.empty();
+            }
+        }
+        if (previousState.isPresent() && previousState.get().releaseIdentity().equals(releaseIdentity)) {
+            LOG.info( "OWL refset of {} already imported at {}", releaseIdentity, previousState.get().importedAt() );
+            return new OwlImport(previousIndex.get(), IntLists.immutable.empty(), null);
+        }
+
+        Rf2ReleaseFile file = full;
+        EffectiveTimeFilter filter = EffectiveTimeFilter.all();
+        if (previousState.isPresent()) {
+            filter = EffectiveTimeFilter.after(previousState.get().lastEffectiveTime());
+            if (mode.equalsIgnoreCase("delta") && delta != null) {
+                file = delta;
+            }
+            LOG.info( "Importing rows after {} from {}", Instant.ofEpochMilli(previousState.get().lastEffectiveTime()), file.entryName() );
+        }
+        LOG.info( "Found entry: {}", file.entryName() );
+        boolean sort = Boolean.getBoolean(SORT_PROPERTY);
+        try (OwlRefsetRows rows = openRows(file, sort)) {
+            logHeader(rows.header());
+            SctidResolutionCache sctids = new SctidResolutionCache();
+            if (Boolean.getBoolean(PREWARM_PROPERTY)) {
+                sctids.prewarm();
+            }
+            StampCache stamps = new StampCache(commits::transaction, TinkarTerm.USER.publicId(), TinkarTerm.DEVELOPMENT_PATH.publicId());
+            OwlRefsetSemanticBuilder semanticBuilder = new OwlRefsetSemanticBuilder(stamps, sctids);
+            OwlSemanticIndex.Builder indexBuilder = OwlSemanticIndex.builder();
+            RefsetMemberGrouping grouping = new RefsetMemberGrouping();
+            Optional<ImportCheckpoint> checkpoint = commits.start(releaseIdentity, file.entryName(), sort, filter);
+            if (checkpoint.isPresent()) {
+                checkpoint.get().replay(rows, filter, grouping, replayed -> semanticBuilder.index(replayed, indexBuilder));
+                LOG.info( "Skipped {} rows committed before the checkpoint", grouping.rows() );
+            }
+            long recordCount = importRows(rows, filter, grouping, semanticBuilder, indexBuilder, commits, inFlight,
+                    parallelism);
+            commits.endFile(rows.nextRowOffset(), grouping.lastMember(), grouping.rows(), recordCount);
+            recordCount += commits.recordsBeforeResume();
+            LOG.info( "Imported {} OWL semantic records, skipped {} already imported rows. ", recordCount, filter.skipped() );
+            LOG.info( "Refset members: {}", grouping );
+            if (grouping.outOfOrder() > 0) {
+                LOG.warn( "The refset is not sorted by member id: {} member groups have a lower id than the group before, "
+                        + "and a member listed in more than one place is written in parts; set -D{}=true to sort it first",
+                        grouping.outOfOrder(), SORT_PROPERTY );
+            }
+            LOG.info( "SCTID resolution: {}", sctids );
+            LOG.info( "Stamps: {}", stamps );
+
+            OwlSemanticIndex runIndex = indexBuilder.build();
+            OwlSemanticIndex index = runIndex;
+            if (previousState.isPresent()) {
+                OwlSemanticIndex.Builder merged = OwlSemanticIndex.builder();
+                merged.addAll(previousIndex.get());
+                merged.addAll(runIndex);
+                index = merged.build();
+            }
+            long lastEffectiveTime = Math.max(filter.latestAccepted(),
+                    previousState.map(OwlImportState::lastEffectiveTime).orElse(Long.MIN_VALUE));
+            LOG.info( "OWL semantics changed for {} concepts", runIndex.conceptCount() );
+            return new OwlImport(index, runIndex.conceptNids(),
+                    new OwlImportState(releaseIdentity, lastEffectiveTime, recordCount, Instant.now()));
+        }
+    }
+
+    /**
+     * Opens the rows of a refset file: from its column cache when that is current, otherwise from the RF2 text,
+     * sorted by member first when asked, writing the cache as they are read.
+     */
+    private static OwlRefsetRows openRows(Rf2ReleaseFile file, boolean sort) throws Exception {
+        OwlRefsetColumnCache cache = OwlRefsetColumnCache.fromSystemProperties(file.entry(), sort);
+        if (cache != null) {
+            Optional<OwlRefsetRows> cached = cache.open();
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+        ContentProvider contentProvider = file.content();
+        Rf2Tokenizer tokenizer = contentProvider.tokenizer();
+        List<String> header;
+        Path sortDirectory = null;
+        try {
+            if (!tokenizer.nextLine()) {
+                throw new IllegalStateException("Empty OWL refset: " + contentProvider.getStreamSourceName());
+            }
+            header = List.of(Rf2RowReader.fields().read(tokenizer));
+            if (sort) {
+                sortDirectory = Files.createTempDirectory("owl-refset-sort");
+            }
+        } catch (Exception e) {
+            tokenizer.close();
+            throw e;
+        }
+        OwlRefsetRows rows;
+        if (sort) {
+            Path directory = sortDirectory;
+            try {
+                Path sorted;
+                try (tokenizer) {
+                    sorted = Rf2ExternalSort.sortByMember(tokenizer, directory, Rf2ExternalSort.DEFAULT_RUN_BYTES);
+                }
+                rows = new TokenizedOwlRefsetRows(header, Rf2Tokenizer.mapped(sorted), () -> FileTrees.deleteRecursively(directory));
+            } catch (Exception e) {
+                FileTrees.deleteRecursively(directory);
+                throw e;
+            }
+        } else {
+            rows = new TokenizedOwlRefsetRows(header, tokenizer, null);
+        }
+        return cache == null ? rows : cache.writeThrough(rows);
+    }
+
+    private static void logHeader(List<String> header) {
+        for (Fields field : Fields.values()) {
+            LOG.info( field.name() + ": " + header.get(field.ordinal()) );
+        }
+        Optional<Entity<EntityVersion>> commentPattern = Entity.get(COMMENT_PATTERN);
+        LOG.info( "Comment pattern: " + commentPattern );
+    }
+
+    private static int importRows(OwlRefsetRows rows, EffectiveTimeFilter filter, RefsetMemberGrouping grouping,
+                                  OwlRefsetSemanticBuilder semanticBuilder, OwlSemanticIndex.Builder indexBuilder,
+                                  ChunkedCommits commits, InFlightRows inFlight, int parallelism) throws IOException {
+        if (parallelism > 1) {
+            LOG.info( "Importing with {} parse/build workers", parallelism );
+            return new PipelinedOwlRefsetImport(semanticBuilder, parallelism,
+                    Integer.getInteger(BATCH_SIZE_PROPERTY, 1000),
+                    Integer.getInteger(QUEUE_CAPACITY_PROPERTY, parallelism * 4), indexBuilder, commits, inFlight).importRows(rows, filter, grouping);
+        }
+        return importRowsSerially(rows, filter, grouping, semanticBuilder, indexBuilder, commits);
+    }
+
+    private static int importRowsSerially(OwlRefsetRows rows, EffectiveTimeFilter filter, RefsetMemberGrouping grouping,
+                                          OwlRefsetSemanticBuilder semanticBuilder, OwlSemanticIndex.Builder indexBuilder,
+                                          ChunkedCommits commits) throws IOException {
+        int recordCount = 0;
+        OwlRefsetBatch member = new OwlRefsetBatch(1);
+        ImportMetrics.ReaderTimer timer = ImportMetrics.global().readerTimer(rows);
+        while (rows.nextRow()) {
+            if (!filter.accept(rows)) {
+                continue;
+            }
+            if (grouping.startsNewMember(rows) && !member.isEmpty()) {
+                timer.lap(member.size());
+                writeMember(member, semanticBuilder, indexBuilder, recordCount++);
+                if (commits.due(grouping.rows() - 1)) {
+                    commits.commit(rows.rowOffset(), grouping.previousMember(), grouping.rows() - 1, recordCount);
+                }
+                timer.restart();
+                member.clear();
+            }
+            member.add(rows);
+        }
+        timer.lap(member.size());
+        if (!member.isEmpty()) {
+            writeMember(member, semanticBuilder, indexBuilder, recordCount++);
+        }
+        return recordCount;
+    }
+
+    private static void writeMember(OwlRefsetBatch member, OwlRefsetSemanticBuilder semanticBuilder,
+                                    OwlSemanticIndex.Builder indexBuilder, int recordCount) {
+        SemanticRecord semanticRecord = semanticBuilder.build(member, 0, member.size());
+        ImportMetrics.global().record(ImportMetrics.Phase.PUT_ENTITY, putEntity(semanticRecord), 1, -1);
+        indexBuilder.add(semanticRecord.referencedComponentNid(), semanticRecord.nid());
+        if (recordCount < 25) {
+            LOG.info( "Created semantic record: {}", semanticRecord );
+        }
+    }
+
+    /**
+     * Writes a semantic to the entity provider, recording the call's latency. Writing an OWL semantic drops the
+     * cached logical expression of its concept.
+     *
+     * @return the time the write took in nanoseconds
+     */
+    static long putEntity(SemanticRecord semanticRecord) {
+        PutEntityEvent event = new PutEntityEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Entity.provider().putEntity(semanticRecord);
+        long nanos = System.nanoTime() - start;
+        if (semanticRecord.patternNid() == COMMENT_PATTERN.nid()) {
+            LOGICAL_EXPRESSIONS.invalidate(semanticRecord.referencedComponentNid());
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.nid = semanticRecord.nid();
+            event.versions = semanticRecord.versions().size();
+            event.commit();
+        }
+        ImportMetrics.global().recordLatency(ImportMetrics.Latency.PUT_ENTITY, nanos);
+        return nanos;
+    }
+
+    private static void findRecordsForMeglumineAntimoniateOnlyProduct() {
+        final EntityProxy.Concept MEGLUMINE_ANTIMONIATE =
+                EntityProxy.Concept.make("Meglumine antimoniate only product in parenteral dose form ", UUID.fromString("8cd1a08b-94ce-3c14-8fe6-d5e82983eff9"));
+
+        Entity.provider().forEachSemanticForComponentOfPattern(MEGLUMINE_ANTIMONIATE.nid(), COMMENT_PATTERN.nid(), semanticRecord -> {
+            LOG.info( "Semantic record for:\n {}", semanticRecord);
+        });
+    }
+
+    /**
+     * Reports how many OWL strings concepts have, from one sequential scan of the index.
+     *
+     * @return the number of concepts scanned
+     */
+    private static long countOwlRecordsForConcepts(OwlSemanticIndex index) {
+        LongAdder conceptCount = new LongAdder();
+        long[] conceptsWithOwlStrings = new long[7]; // the last slot counts six or more
+        MutableIntList conceptsWithSixOrMore = IntLists.mutable.empty();
+
+        PrimitiveData.get().forEachConceptNid(conceptNid -> conceptCount.increment());
+        for (int i = 0; i < index.conceptCount(); i++) {
+            int semanticCount = index.semanticCountAt(i);
+            conceptsWithOwlStrings[Math.min(semanticCount, 6)]++;
+            if (semanticCount >= 6) {
+                conceptsWithSixOrMore.add(index.conceptNid(i));
+            }
+        }
+        conceptsWithOwlStrings[0] = conceptCount.longValue() - index.conceptCount();
+
+        LOG.info( "Total concept count: {}", conceptCount.longValue() );
+        LOG.info( "Total concept count with no owl strings: {}", conceptsWithOwlStrings[0] );
+        LOG.info( "Total concept count with one owl strings: {}", conceptsWithOwlStrings[1] );
+        LOG.info( "Total concept count with two owl strings: {}", conceptsWithOwlStrings[2] );
+        LOG.info( "Total concept count with three owl strings: {}", conceptsWithOwlStrings[3] );
+        LOG.info( "Total concept count with four owl strings: {}", conceptsWithOwlStrings[4] );
+        LOG.info( "Total concept count with five owl strings: {}", conceptsWithOwlStrings[5] );
+        LOG.info( "Total concept count with six or more owl strings: {}", conceptsWithOwlStrings[6] );
+        LOG.info( "Concepts with with six or more owl strings: {}", IntIds.list.of(conceptsWithSixOrMore.toArray()) );
+
+        conceptsWithSixOrMore.forEach(conceptNid -> {
+            StringBuilder sb = new StringBuilder("\n-------------------------------------------");
+            sb.append( "\n\nSemantic records for concept ");
+            sb.append(PrimitiveData.text(conceptNid));
+            sb.append( " with > 6 owl strings:\n");
+            forEachOwlSemantic(conceptNid,
+                    semanticRecord -> {
+                        sb.append( "\n\n");
+                        sb.append(semanticRecord);
+
+                    });
+            sb.append("\n-------------------------------------------");
+            LOG.info( sb.toString() );
+        });
+        return conceptCount.longValue();
+    }
+
+    /**
+     * Visits the {@link #COMMENT_PATTERN} semantics of a concept, through the OWL semantic index once the import has
+     * built it, otherwise through the entity provider.
+     */
+    static void forEachOwlSemantic(int conceptNid, Consumer<SemanticEntity<SemanticEntityVersion>> semanticConsumer) {
+        OwlSemanticIndex index = owlSemanticIndex;
+        if (index == null) {
+            Entity.provider().forEachSemanticForComponentOfPattern(conceptNid, COMMENT_PATTERN.nid(), semanticConsumer::accept);
+        } else {
+            index.forEachSemantic(conceptNid, semanticNid -> semanticConsumer.accept(Entity.getFast(semanticNid)));
+        }
+    }
+
+    private static void processLymeDiseaseOfInnerEar(Transaction transaction) {
+        final EntityProxy.Concept LYME_DISEASE_OF_INNER_EAR =
+                EntityProxy.Concept.make("Lyme disease of inner ear", UUID.fromString("7df3b9f1-dcf7-3aa2-886b-7b80f583bb10"));
+        LogicalExpression expression = extractLogicalExpression(LYME_DISEASE_OF_INNER_EAR);
+        if (expression == null) {
+            LOG.info( "No active OWL axioms for {}, no stated axioms written", PrimitiveData.text(LYME_DISEASE_OF_INNER_EAR.nid()) );
+            return;
+        }
+        writeStatedLogicalExpression(transaction, LYME_DISEASE_OF_INNER_EAR, expression);
+        LOG.info("\n" + PrimitiveData.text(LYME_DISEASE_OF_INNER_EAR.nid()) + "\n" + expression.toString() );
+    }
+
+    private static void processMeglumineAntimoniate(Transaction transaction) {
+        final EntityProxy.Concept MEGLUMINE_ANTIMONIATE =
+                EntityProxy.Concept.make("Meglumine antimoniate only product in parenteral dose form ", UUID.fromString("8cd1a08b-94ce-3c14-8fe6-d5e82983eff9"));
+        LogicalExpression expression = extractLogicalExpression(MEGLUMINE_ANTIMONIATE);
+        if (expression == null) {
+            LOG.info( "No active OWL axioms for {}, no stated axioms written", PrimitiveData.text(MEGLUMINE_ANTIMONIATE.nid()) );
+            return;
+        }
+
+        writeStatedLogicalExpression(transaction, MEGLUMINE_ANTIMONIATE, expression);
+
+        LOG.info("\n" + PrimitiveData.text(MEGLUMINE_ANTIMONIATE.nid()) + "\n" + expression.toString() );
+    }
+
+    private static void processActiveIngredient(Transaction transaction) {
+
+        EntityProxy.Concept HAS_ACTIVE_INGREDIENT =
+                EntityProxy.Concept.make("Has Active Ingredient", UUID.fromString("65bf3b7f-c854-36b5-81c3-4915461020a8"));
+        LogicalExpression expression = extractLogicalExpression(HAS_ACTIVE_INGREDIENT);
+        if (expression == null) {
+            LOG.info( "No active OWL axioms for {}, no stated axioms written", PrimitiveData.text(HAS_ACTIVE_INGREDIENT.nid()) );
+            return;
+        }
+
+        writeStatedLogicalExpression(transaction, HAS_ACTIVE_INGREDIENT, expression);
+
+        LOG.info("\n" + PrimitiveData.text(HAS_ACTIVE_INGREDIENT.nid()) + "\n" + expression.toString() );
+    }
+
+    private static void writeStatedLogicalExpression(Transaction transaction, EntityProxy.Concept conceptProxy, LogicalExpression expression) {
+        long effectiveTimeInEpochMs = System.currentTimeMillis();
+        PublicId authorId = TinkarTerm.USER.publicId();
+        PublicId moduleId = TinkarTerm.SOLOR_MODULE.publicId();
+        PublicId pathId = TinkarTerm.DEVELOPMENT_PATH.publicId();
+
+        //State state, long time, PublicId authorId, PublicId moduleId, PublicId pathId
+        StampEntity stampForSemantic = transaction.getStamp(State.ACTIVE, effectiveTimeInEpochMs, authorId, moduleId, pathId);
+
+        ImportMetrics.global().record(ImportMetrics.Phase.PUT_ENTITY,
+                putEntity(statedAxiomSemantic(conceptProxy, stampForSemantic, expression)), 1, -1);
+    }
+
+    static SemanticRecord statedAxiomSemantic(EntityProxy.Concept conceptProxy, StampEntity stampForSemantic, LogicalExpression expression) {
+        UUID semanticUuid = UuidT5Generator.singleSemanticUuid(TinkarTerm.EL_PLUS_PLUS_STATED_AXIOMS_PATTERN.publicId(),
+                conceptProxy.publicId());
+
+        return SemanticRecord.build(semanticUuid, // Semantic UUID
+                TinkarTerm.EL_PLUS_PLUS_STATED_AXIOMS_PATTERN.nid(), // Pattern nid
+                conceptProxy.nid(),
+                stampForSemantic.lastVersion(),
+                Lists.immutable.of(expression.sourceGraph()));
+    }
+
+    private static LogicalExpression extractLogicalExpression(EntityProxy.Concept concept) {
+        try (ImportMetrics.Span span = ImportMetrics.global().span(ImportMetrics.Phase.AXIOM_EXTRACTION).items(1)) {
+            return extractLogicalExpression(concept.nid(), Calculators.View.Default());
+        }
+    }
+
+    /**
+     * Builds the stated logical expression of a concept from the latest active OWL axioms in its
+     * {@link #COMMENT_PATTERN} semantics, or takes it from the {@link LogicalExpressionCache} when those semantics
+     * have not changed since it was built.
+     *
+     * @return the expression, or null when the concept has no active OWL axioms
+     */
+    static LogicalExpression extractLogicalExpression(int conceptNid, ViewCalculator viewCalculator) {
+        return LOGICAL_EXPRESSIONS.get(conceptNid, viewCalculator);
+    }
+
+    /**
+     * Builds a logical expression from OWL axioms in the SNOMED functional syntax of the OWL expression refset.
+     *
+     * @return the expression, or null when there are no axioms
+     */
+    static LogicalExpression logicalExpression(Iterable<String> owlAxioms) {
+        StringBuilder propertyBuilder = new StringBuilder();
+        StringBuilder classBuilder = new StringBuilder();
+        OwlAxiomLexer lexer = new OwlAxiomLexer();
+
+        for (String owlAxiom : owlAxioms) {
+            lexer.lex(owlAxiom);
+            if (lexer.mentionsProperty()) {
+                lexer.appendPublicIdForm(propertyBuilder.append(" "));
+                if (!lexer.hasPropertyChain()) {
+                    //TODO ask Michael Lawley if this is ok...
+                    lexer.appendAsClassAxiom(classBuilder.append(" "));
+                }
+            } else {
+                lexer.appendPublicIdForm(classBuilder.append(" "));
+            }
+        }
+
+
+        if (classBuilder.isEmpty() && propertyBuilder.isEmpty()) {
+            return null;
+        }
+        String owlClassExpressionsToProcess = classBuilder.toString();
+        String owlPropertyExpressionsToProcess = propertyBuilder.toString();
+
+        AxiomConversionEvent event = new AxiomConversionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            return SctOwlUtilities.sctToLogicalExpression(
+                    owlClassExpressionsToProcess,
+                    owlPropertyExpressionsToProcess);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            ImportMetrics.global().recordLatency(ImportMetrics.Latency.SCT_TO_LOGICAL_EXPRESSION, System.nanoTime() - start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.classAxiomLength = owlClassExpressionsToProcess.length();
+                event.propertyAxiomLength = owlPropertyExpressionsToProcess.length();
+                event.commit();
+            }
+        }
+    }
+}
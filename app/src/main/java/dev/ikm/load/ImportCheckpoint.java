@@ -0,0 +1,121 @@
+package dev.ikm.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * How far an OWL refset import had got when it last committed: every row before {@link #offset()} in the source it
+ * was reading has been committed and saved, and {@link #lastMemberId()} is the member of the last of those rows.
+ * <p>
+ * Written to the data store root after each chunk commit and deleted once the import has been recorded in full, so a
+ * checkpoint that is still there on start up belongs to a run that did not finish. Each refset entry has a checkpoint
+ * file of its own, so the refsets of a release that holds several are each resumed where they stopped. It only applies to a run reading
+ * the same source the same way: the same release and entry, sorted or not, with the same effective time filter. The
+ * offset counts bytes of the uncompressed entry, or of the sorted file, which is rebuilt identically from the same
+ * entry.
+ */
+record ImportCheckpoint(String releaseIdentity, String entryName, boolean sorted, long effectiveTimeAfter,
+                        long offset, UUID lastMemberId, long rowCount, long recordCount, Instant committedAt) {
+    private static final String FILE_NAME_PREFIX = "owl-import-checkpoint-";
+
+    private static final String RELEASE_IDENTITY = "releaseIdentity";
+    private static final String ENTRY_NAME = "entryName";
+    private static final String SORTED = "sorted";
+    private static final String EFFECTIVE_TIME_AFTER = "effectiveTimeAfter";
+    private static final String OFFSET = "offset";
+    private static final String LAST_MEMBER_ID = "lastMemberId";
+    private static final String ROW_COUNT = "rowCount";
+    private static final String RECORD_COUNT = "recordCount";
+    private static final String COMMITTED_AT = "committedAt";
+
+    /**
+     * @return the name of the checkpoint file of a refset entry: the file name of the entry, which names the refset
+     * and its edition, and a hash of its whole path, which tells apart entries of the same name in nested archives
+     */
+    static String fileName(String entryName) {
+        String name = entryName.substring(entryName.lastIndexOf('/') + 1).replace(".txt", "");
+        return FILE_NAME_PREFIX + name + "-" + Integer.toHexString(entryName.hashCode()) + ".properties";
+    }
+
+    static Optional<ImportCheckpoint> load(Path directory, String entryName) throws IOException {
+        Path file = directory.resolve(fileName(entryName));
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        return Optional.of(new ImportCheckpoint(properties.getProperty(RELEASE_IDENTITY),
+                properties.getProperty(ENTRY_NAME),
+                Boolean.parseBoolean(properties.getProperty(SORTED)),
+                Long.parseLong(properties.getProperty(EFFECTIVE_TIME_AFTER)),
+                Long.parseLong(properties.getProperty(OFFSET)),
+                UUID.fromString(properties.getProperty(LAST_MEMBER_ID)),
+                Long.parseLong(properties.getProperty(ROW_COUNT)),
+                Long.parseLong(properties.getProperty(RECORD_COUNT)),
+                Instant.parse(properties.getProperty(COMMITTED_AT))));
+    }
+
+    void save(Path directory) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(RELEASE_IDENTITY, releaseIdentity);
+        properties.setProperty(ENTRY_NAME, entryName);
+        properties.setProperty(SORTED, Boolean.toString(sorted));
+        properties.setProperty(EFFECTIVE_TIME_AFTER, Long.toString(effectiveTimeAfter));
+        properties.setProperty(OFFSET, Long.toString(offset));
+        properties.setProperty(LAST_MEMBER_ID, lastMemberId.toString());
+        properties.setProperty(ROW_COUNT, Long.toString(rowCount));
+        properties.setProperty(RECORD_COUNT, Long.toString(recordCount));
+        properties.setProperty(COMMITTED_AT, committedAt.toString());
+        Path file = directory.resolve(fileName(entryName));
+        Path temporary = directory.resolve(fileName(entryName) + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            properties.store(out, "OWL expression refset import in progress; offset is in bytes of the entry read");
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static void delete(Path directory, String entryName) throws IOException {
+        Files.deleteIfExists(directory.resolve(fileName(entryName)));
+    }
+
+    /**
+     * Reads the rows committed before this checkpoint without writing them again, so the filter and the member
+     * grouping continue from where the interrupted run stopped.
+     *
+     * @param rows          positioned before the first row of the source this checkpoint {@link #appliesTo applies to}
+     * @param memberStarted called with each accepted row that starts a member, to rebuild what the run had indexed
+     * @throws IllegalStateException when the rows do not end at the offset and member recorded
+     */
+    void replay(OwlRefsetRows rows, EffectiveTimeFilter filter, RefsetMemberGrouping grouping,
+                Consumer<OwlRefsetRows> memberStarted) throws IOException {
+        while (rows.nextRowOffset() < offset && rows.nextRow()) {
+            if (filter.accept(rows) && grouping.startsNewMember(rows)) {
+                memberStarted.accept(rows);
+            }
+        }
+        if (rows.nextRowOffset() != offset || !lastMemberId.equals(grouping.lastMember())) {
+            throw new IllegalStateException("Checkpoint after member " + lastMemberId + " at offset " + offset
+                    + " does not match " + entryName + ", which has member " + grouping.lastMember()
+                    + " before offset " + rows.nextRowOffset() + "; delete " + fileName(entryName) + " to import from the start");
+        }
+    }
+
+    /**
+     * @return true when this checkpoint was taken by a run reading the same rows in the same order
+     */
+    boolean appliesTo(String releaseIdentity, String entryName, boolean sorted, long effectiveTimeAfter) {
+        return this.releaseIdentity.equals(releaseIdentity) && this.entryName.equals(entryName)
+                && this.sorted == sorted && this.effectiveTimeAfter == effectiveTimeAfter;
+    }
+}
@@ -0,0 +1,429 @@
+package dev.ikm.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time, item counts and allocation for each phase of an import and transform run, with latency histograms for the
+ * calls that dominate it and the depths of the pipeline queues.
+ * <p>
+ * One instance, {@link #global()}, collects for the whole process; recording is thread safe and cheap enough to call
+ * per row. Every {@link Span} is also committed as an {@link ImportPhaseEvent}, so a JFR recording shows the same
+ * phases on a timeline. {@link #writeSummary(Path)} writes the totals as JSON at the end of a run.
+ * <p>
+ * Phase times are summed over the threads that worked in the phase, so items per second is the rate of one thread;
+ * compare it with the wall clock time of the run for the effect of parallelism. Allocation is only measured where the
+ * JVM reports it for the current thread, which excludes virtual threads on some JDKs.
+ */
+final class ImportMetrics {
+    private static final Logger LOG = LoggerFactory.getLogger(ImportMetrics.class);
+    private static final ImportMetrics GLOBAL = new ImportMetrics();
+    private static final com.sun.management.ThreadMXBean THREADS = threadMXBean();
+
+    enum Phase {
+        /** Reading the source, which for zip entries is inflating them. */
+        UNZIP,
+        /** Splitting lines and parsing fields into row batches, excluding the reads. */
+        PARSE,
+        /** Getting the stamp for each row. */
+        STAMP,
+        /** Turning the rows of each member into a semantic, excluding the stamps. */
+        BUILD,
+        PUT_ENTITY,
+        /** Scanning concepts for the OWL semantic report. */
+        CONCEPT_SCAN,
+        /** Building stated logical expressions from OWL axioms. */
+        AXIOM_EXTRACTION,
+        /** Extracting the stated axioms and loading them into the reasoner. */
+        REASONER_LOAD,
+        /** Computing inferences, in full or for the changed concepts. */
+        CLASSIFY,
+        /** Building necessary normal forms and writing the inferred axioms. */
+        INFERRED_WRITE,
+        COMMIT,
+        SAVE
+    }
+
+    enum Latency {
+        PUT_ENTITY, SCT_TO_LOGICAL_EXPRESSION
+    }
+
+    private final Instant started = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final EnumMap<Phase, PhaseTotals> phases = new EnumMap<>(Phase.class);
+    private final EnumMap<Latency, LatencyHistogram> latencies = new EnumMap<>(Latency.class);
+    private final Map<String, DepthGauge> queues = new ConcurrentHashMap<>();
+    private final Map<String, CacheCounters> caches = new ConcurrentHashMap<>();
+
+    /**
+     * The counters of a cache, reported with the phases once it is {@link #registerCache registered}.
+     */
+    interface CacheCounters {
+        long hits();
+
+        long misses();
+
+        long evictions();
+
+        long size();
+
+        default double hitRatio() {
+            long lookups = hits() + misses();
+            return lookups == 0 ? 0 : (double) hits() / lookups;
+        }
+    }
+
+    private ImportMetrics() {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new PhaseTotals());
+        }
+        for (Latency latency : Latency.values()) {
+            latencies.put(latency, new LatencyHistogram());
+        }
+    }
+
+    static ImportMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Starts timing a phase on the current thread; close the span to record it.
+     */
+    Span span(Phase phase) {
+        return new Span(phase);
+    }
+
+    /**
+     * Starts timing a reader that parses rows from the source.
+     */
+    ReaderTimer readerTimer(OwlRefsetRows rows) {
+        return new ReaderTimer(rows);
+    }
+
+    /**
+     * Adds work measured by the caller to a phase.
+     *
+     * @param allocatedBytes bytes allocated during the work, or a negative number when unknown
+     */
+    void record(Phase phase, long nanos, long items, long allocatedBytes) {
+        PhaseTotals totals = phases.get(phase);
+        totals.nanos.add(nanos);
+        totals.items.add(items);
+        if (allocatedBytes > 0) {
+            totals.allocatedBytes.add(allocatedBytes);
+        }
+    }
+
+    void recordLatency(Latency latency, long nanos) {
+        latencies.get(latency).record(nanos);
+    }
+
+    void recordQueueDepth(String queue, int depth, int capacity) {
+        queues.computeIfAbsent(queue, name -> new DepthGauge(capacity)).record(depth);
+        QueueDepthEvent event = new QueueDepthEvent();
+        if (event.shouldCommit()) {
+            event.queue = queue;
+            event.depth = depth;
+            event.capacity = capacity;
+            event.commit();
+        }
+    }
+
+    void registerCache(String name, CacheCounters cache) {
+        caches.put(name, cache);
+    }
+
+    /**
+     * @return bytes allocated so far by the current thread, or -1 when the JVM cannot tell
+     */
+    static long currentThreadAllocatedBytes() {
+        if (THREADS == null) {
+            return -1;
+        }
+        try {
+            return THREADS.getCurrentThreadAllocatedBytes();
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the bytes allocated since {@code start}, or -1 when either measurement is unknown
+     */
+    static long allocatedSince(long start) {
+        long now = currentThreadAllocatedBytes();
+        return start < 0 || now < 0 ? -1 : now - start;
+    }
+
+    void logSummary() {
+        for (Phase phase : Phase.values()) {
+            PhaseTotals totals = phases.get(phase);
+            if (totals.nanos.sum() > 0) {
+                LOG.info(String.format(Locale.ROOT, "%-17s %10.1f s %,14d items %,14.0f items/s %,16d bytes allocated",
+                        phase, totals.nanos.sum() / 1e9, totals.items.sum(), totals.itemsPerSecond(),
+                        totals.allocatedBytes.sum()));
+            }
+        }
+        for (Latency latency : Latency.values()) {
+            LatencyHistogram histogram = latencies.get(latency);
+            if (histogram.count() > 0) {
+                LOG.info("{} latency: {}", latency, histogram);
+            }
+        }
+        queues.forEach((queue, gauge) -> LOG.info("Queue {} depth: {}", queue, gauge));
+        caches.forEach((name, cache) -> LOG.info("Cache {}: {}", name, cache));
+    }
+
+    /**
+     * Writes the totals to a JSON file, replacing any previous one.
+     */
+    void writeSummary(Path file) throws IOException {
+        StringBuilder json = new StringBuilder(4096);
+        json.append("{\n");
+        json.append("  \"started\": \"").append(started).append("\",\n");
+        json.append("  \"wallSeconds\": ").append(number((System.nanoTime() - startNanos) / 1e9)).append(",\n");
+        json.append("  \"phases\": {");
+        String separator = "\n";
+        for (Phase phase : Phase.values()) {
+            PhaseTotals totals = phases.get(phase);
+            json.append(separator).append("    \"").append(phase.name().toLowerCase(Locale.ROOT)).append("\": {")
+                    .append("\"seconds\": ").append(number(totals.nanos.sum() / 1e9))
+                    .append(", \"items\": ").append(totals.items.sum())
+                    .append(", \"itemsPerSecond\": ").append(number(totals.itemsPerSecond()))
+                    .append(", \"allocatedBytes\": ").append(totals.allocatedBytes.sum()).append('}');
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"latencies\": {");
+        separator = "\n";
+        for (Latency latency : Latency.values()) {
+            json.append(separator).append("    \"").append(latency.name().toLowerCase(Locale.ROOT)).append("\": ");
+            latencies.get(latency).appendJson(json);
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"queues\": {");
+        separator = "\n";
+        for (Map.Entry<String, DepthGauge> queue : queues.entrySet()) {
+            json.append(separator).append("    \"").append(queue.getKey()).append("\": ");
+            queue.getValue().appendJson(json);
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"caches\": {");
+        separator = "\n";
+        for (Map.Entry<String, CacheCounters> cache : caches.entrySet()) {
+            CacheCounters counters = cache.getValue();
+            json.append(separator).append("    \"").append(cache.getKey()).append("\": {")
+                    .append("\"size\": ").append(counters.size())
+                    .append(", \"hits\": ").append(counters.hits())
+                    .append(", \"misses\": ").append(counters.misses())
+                    .append(", \"hitRatio\": ").append(number(counters.hitRatio()))
+                    .append(", \"evictions\": ").append(counters.evictions()).append('}');
+            separator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+        LOG.info("Wrote import metrics to {}", file);
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+
+    /**
+     * A timed phase on one thread. Closing it records the time and allocation, and commits an
+     * {@link ImportPhaseEvent}.
+     */
+    final class Span implements AutoCloseable {
+        private final Phase phase;
+        private final long start = System.nanoTime();
+        private final long startAllocated = currentThreadAllocatedBytes();
+        private final ImportPhaseEvent event = new ImportPhaseEvent();
+        private long items;
+
+        private Span(Phase phase) {
+            this.phase = phase;
+            event.begin();
+        }
+
+        Span items(long items) {
+            this.items = items;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            long allocated = allocatedSince(startAllocated);
+            record(phase, System.nanoTime() - start, items, allocated);
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase.name();
+                event.items = items;
+                event.allocatedBytes = allocated;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Splits a reader's time between {@link Phase#UNZIP} and {@link Phase#PARSE}. The reader calls {@link #lap(int)}
+     * before handing rows on and {@link #restart()} once it resumes reading, so time spent waiting on the next stage is
+     * left out.
+     */
+    final class ReaderTimer {
+        private final OwlRefsetRows rows;
+        private long start;
+        private long readStart;
+        private long allocatedStart;
+
+        private ReaderTimer(OwlRefsetRows rows) {
+            this.rows = rows;
+            restart();
+        }
+
+        void restart() {
+            start = System.nanoTime();
+            readStart = rows.readNanos();
+            allocatedStart = currentThreadAllocatedBytes();
+        }
+
+        void lap(int rowCount) {
+            long read = rows.readNanos() - readStart;
+            record(Phase.UNZIP, read, rowCount, -1);
+            record(Phase.PARSE, System.nanoTime() - start - read, rowCount, allocatedSince(allocatedStart));
+        }
+    }
+
+    private static final class PhaseTotals {
+        final LongAdder nanos = new LongAdder();
+        final LongAdder items = new LongAdder();
+        final LongAdder allocatedBytes = new LongAdder();
+
+        double itemsPerSecond() {
+            long sum = nanos.sum();
+            return sum == 0 ? 0 : items.sum() / (sum / 1e9);
+        }
+    }
+
+    /**
+     * Counts latencies in power of two nanosecond buckets, so percentiles are accurate to within a factor of two.
+     */
+    static final class LatencyHistogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            long value = Math.max(nanos, 1);
+            buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(value));
+            count.increment();
+            totalNanos.add(value);
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        /**
+         * @return the upper bound of the bucket holding the percentile, in nanoseconds
+         */
+        long percentileNanos(double percentile) {
+            long total = count.sum();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int bucket = 0; bucket < 64; bucket++) {
+                seen += buckets.get(bucket);
+                if (seen >= rank) {
+                    return Math.min(bucket == 62 ? Long.MAX_VALUE : (2L << bucket) - 1, maxNanos.get());
+                }
+            }
+            return maxNanos.get();
+        }
+
+        void appendJson(StringBuilder json) {
+            long total = count.sum();
+            json.append("{\"count\": ").append(total)
+                    .append(", \"meanMicros\": ").append(number(total == 0 ? 0 : totalNanos.sum() / 1e3 / total))
+                    .append(", \"p50Micros\": ").append(number(percentileNanos(50) / 1e3))
+                    .append(", \"p90Micros\": ").append(number(percentileNanos(90) / 1e3))
+                    .append(", \"p99Micros\": ").append(number(percentileNanos(99) / 1e3))
+                    .append(", \"p999Micros\": ").append(number(percentileNanos(99.9) / 1e3))
+                    .append(", \"maxMicros\": ").append(number(maxNanos.get() / 1e3)).append('}');
+        }
+
+        @Override
+        public String toString() {
+            long total = count.sum();
+            return String.format(Locale.ROOT, "%,d calls, mean %.1f us, p50 %.1f us, p99 %.1f us, max %.1f us", total,
+                    total == 0 ? 0 : totalNanos.sum() / 1e3 / total, percentileNanos(50) / 1e3,
+                    percentileNanos(99) / 1e3, maxNanos.get() / 1e3);
+        }
+    }
+
+    private static final class DepthGauge {
+        private final int capacity;
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+        private final LongAdder full = new LongAdder();
+
+        DepthGauge(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void record(int depth) {
+            samples.increment();
+            total.add(depth);
+            max.accumulateAndGet(depth, Math::max);
+            if (depth >= capacity) {
+                full.increment();
+            }
+        }
+
+        void appendJson(StringBuilder json) {
+            long count = samples.sum();
+            json.append("{\"capacity\": ").append(capacity)
+                    .append(", \"samples\": ").append(count)
+                    .append(", \"mean\": ").append(number(count == 0 ? 0 : (double) total.sum() / count))
+                    .append(", \"max\": ").append(max.get())
+                    .append(", \"fullSamples\": ").append(full.sum()).append('}');
+        }
+
+        @Override
+        public String toString() {
+            long count = samples.sum();
+            return String.format(Locale.ROOT, "mean %.1f, max %d of %d, full in %d of %d samples",
+                    count == 0 ? 0 : (double) total.sum() / count, max.get(), capacity, full.sum(), count);
+        }
+    }
+}
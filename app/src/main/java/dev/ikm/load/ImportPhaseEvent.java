@@ -0,0 +1,29 @@
+package dev.ikm.load;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A timed piece of one import phase on one thread, such as a row batch parsed by the reader or the final commit.
+ */
+@Name("dev.ikm.load.ImportPhase")
+@Label("Import Phase")
+@Category({"Tinkar", "OWL Import"})
+@Description("Time, items and allocation of one piece of an OWL import phase")
+@StackTrace(false)
+class ImportPhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Items")
+    long items;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -0,0 +1,44 @@
+package dev.ikm.load;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * A limit on the rows that have been read but not yet written, shared by every file a release import loads at the
+ * same time, so reading many files concurrently does not multiply the rows held on the heap.
+ * <p>
+ * A request for more rows than the whole limit is treated as a request for the whole limit, so a batch larger than
+ * the limit still proceeds, alone. {@link #release(int)} must be called with the count that was acquired.
+ */
+final class InFlightRows {
+    private static final InFlightRows UNLIMITED = new InFlightRows(Integer.MAX_VALUE);
+
+    private final int limit;
+    private final Semaphore permits;
+
+    InFlightRows(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+        this.limit = limit;
+        this.permits = new Semaphore(limit, true);
+    }
+
+    static InFlightRows unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Waits until {@code rows} more rows may be read.
+     */
+    void acquire(int rows) throws InterruptedException {
+        if (this != UNLIMITED) {
+            permits.acquire(Math.min(rows, limit));
+        }
+    }
+
+    void release(int rows) {
+        if (this != UNLIMITED) {
+            permits.release(Math.min(rows, limit));
+        }
+    }
+}
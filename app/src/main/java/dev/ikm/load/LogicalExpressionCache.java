@@ -0,0 +1,173 @@
+package dev.ikm.load;
+
+import dev.ikm.tinkar.coordinate.view.calculator.ViewCalculator;
+import dev.ikm.tinkar.entity.graph.adaptor.axiom.LogicalExpression;
+import org.eclipse.collections.api.factory.primitive.LongLists;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the {@link LogicalExpression} built for a concept from the OWL axioms of its
+ * {@link ImportAndTransform#COMMENT_PATTERN} semantics, so a concept asked for again is not rebuilt while those
+ * semantics are unchanged.
+ * <p>
+ * An entry is keyed on the nid and latest stamp of every semantic that went into it. A lookup reads the latest
+ * versions again, which parses nothing, and uses the entry only when they match, so an entry is never used for
+ * versions it was not built from, whichever view they were read with. {@link ImportAndTransform#putEntity} also drops
+ * the entry of a concept whose OWL semantic it writes. The cache holds at most a number of concepts and a total
+ * weight, the characters of OWL axiom text the expressions were built from, evicting the least recently used concept
+ * when either is exceeded. Shared by every thread that converts axioms; the conversion itself runs outside the lock.
+ */
+final class LogicalExpressionCache implements ImportMetrics.CacheCounters {
+    private record Entry(long[] stamps, LogicalExpression expression, long weight) {}
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long weight;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maxEntries the most concepts to hold; zero turns the cache off
+     * @param maxWeight  the most characters of OWL axioms the held expressions may have been built from
+     */
+    LogicalExpressionCache(int maxEntries, long maxWeight) {
+        if (maxEntries < 0 || maxWeight < 0) {
+            throw new IllegalArgumentException("maxEntries and maxWeight must not be negative: " + maxEntries + ", " + maxWeight);
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * A cache bounded by {@value ImportAndTransform#EXPRESSION_CACHE_SIZE_PROPERTY} concepts and
+     * {@value ImportAndTransform#EXPRESSION_CACHE_WEIGHT_PROPERTY} characters of OWL axioms.
+     */
+    static LogicalExpressionCache fromSystemProperties() {
+        return new LogicalExpressionCache(Integer.getInteger(ImportAndTransform.EXPRESSION_CACHE_SIZE_PROPERTY, 10_000),
+                Long.getLong(ImportAndTransform.EXPRESSION_CACHE_WEIGHT_PROPERTY, 8L << 20));
+    }
+
+    /**
+     * Returns the concept's expression for the latest versions of its OWL semantics, building it on a miss. The
+     * expression is shared with later callers, so it must not be changed.
+     *
+     * @return the expression, or null when the concept has no active OWL axioms
+     */
+    LogicalExpression get(int conceptNid, ViewCalculator viewCalculator) {
+        MutableLongList stampList = LongLists.mutable.empty();
+        List<String> owlAxioms = new ArrayList<>();
+        ImportAndTransform.forEachOwlSemantic(conceptNid,
+                semanticRecord -> {
+                    viewCalculator.stampCalculator().latest(semanticRecord).ifPresent(semanticVersion -> {
+                        stampList.add((long) semanticRecord.nid() << 32 | Integer.toUnsignedLong(semanticVersion.stampNid()));
+                        if (semanticVersion.active()) {
+                            owlAxioms.add(semanticVersion.fieldValues().get(0).toString());
+                        }
+                    });
+                });
+        long[] stamps = stampList.toSortedArray();
+
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(conceptNid);
+        }
+        if (cached != null && Arrays.equals(cached.stamps(), stamps)) {
+            hits.increment();
+            return cached.expression();
+        }
+        misses.increment();
+        if (cached != null) {
+            stale.increment();
+        }
+        LogicalExpression expression = ImportAndTransform.logicalExpression(owlAxioms);
+        put(conceptNid, new Entry(stamps, expression, owlAxioms.stream().mapToLong(String::length).sum()));
+        return expression;
+    }
+
+    private void put(int conceptNid, Entry entry) {
+        if (maxEntries == 0 || entry.weight() > maxWeight) {
+            return;
+        }
+        synchronized (entries) {
+            Entry replaced = entries.put(conceptNid, entry);
+            weight += entry.weight() - (replaced == null ? 0 : replaced.weight());
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries || weight > maxWeight) {
+                weight -= eldest.next().weight();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops the expression of a concept whose OWL semantics changed.
+     */
+    void invalidate(int conceptNid) {
+        synchronized (entries) {
+            Entry removed = entries.remove(conceptNid);
+            if (removed != null) {
+                weight -= removed.weight();
+                invalidations.increment();
+            }
+        }
+    }
+
+    @Override
+    public long hits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long misses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return the misses on a concept whose entry was built from other versions of its OWL semantics
+     */
+    long stale() {
+        return stale.sum();
+    }
+
+    long invalidations() {
+        return invalidations.sum();
+    }
+
+    long weight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LogicalExpressionCache{size=" + size() + ", weight=" + weight() + ", hits=" + hits() + ", misses="
+                + misses() + ", hitRatio=" + String.format(Locale.ROOT, "%.3f", hitRatio()) + ", stale="
+                + stale() + ", evictions=" + evictions() + ", invalidations=" + invalidations() + '}';
+    }
+}
@@ -0,0 +1,215 @@
+package dev.ikm.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A zip archive stored as an entry of another zip archive, such as the RF2 package inside a SNOMED release bundle.
+ * <p>
+ * The inner archive is inflated once to a temporary file and opened as a {@link ZipFile}, which reads its central
+ * directory a single time and keeps an index from entry name to offset. Any inner entry can then be streamed
+ * directly instead of rescanning the inner archive with a {@code ZipInputStream} on every request.
+ * <p>
+ * Inflated archives are shared through a cache bounded by the total size of the temporary files, set with the
+ * {@value #CACHE_BYTES_PROPERTY} system property. Archives are only evicted once every user has
+ * {@link #release() released} them. An archive is inflated outside the cache lock, so opening one archive does not
+ * hold up users of the others; threads opening the same archive meanwhile wait for that one inflation.
+ */
+public class NestedZipArchive {
+    private static final Logger LOG = LoggerFactory.getLogger(NestedZipArchive.class);
+
+    public static final String CACHE_BYTES_PROPERTY = "nested.zip.cacheBytes";
+    private static final long CACHE_BYTES = Long.getLong(CACHE_BYTES_PROPERTY, 4L * 1024 * 1024 * 1024);
+    private static final LinkedHashMap<String, NestedZipArchive> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+    /** Archives being inflated, by key; guarded by the {@link #CACHE} lock. */
+    private static final Map<String, CompletableFuture<NestedZipArchive>> INFLATING = new HashMap<>();
+    private static long cachedBytes;
+
+    private final String key;
+    private final Path inflatedFile;
+    private final ZipFile zipFile;
+    private final long size;
+    private int users;
+
+    private NestedZipArchive(String key, Path inflatedFile) throws IOException {
+        this.key = key;
+        this.inflatedFile = inflatedFile;
+        this.zipFile = new ZipFile(inflatedFile.toFile(), StandardCharsets.UTF_8);
+        this.size = Files.size(inflatedFile);
+    }
+
+    /**
+     * Opens the archive stored as {@code nestedZipEntry} of {@code outerZip}, inflating it only if it is not already
+     * cached. Each call must be paired with a {@link #release()}.
+     */
+    public static NestedZipArchive open(File outerZip, ZipEntry nestedZipEntry) throws IOException {
+        String key = outerZip.getCanonicalPath() + "!" + nestedZipEntry.getName();
+        while (true) {
+            CompletableFuture<NestedZipArchive> inflating;
+            boolean inflateHere = false;
+            synchronized (CACHE) {
+                NestedZipArchive archive = CACHE.get(key);
+                if (archive != null) {
+                    archive.users++;
+                    return archive;
+                }
+                inflating = INFLATING.get(key);
+                if (inflating == null) {
+                    inflating = new CompletableFuture<>();
+                    INFLATING.put(key, inflating);
+                    inflateHere = true;
+                }
+            }
+            if (inflateHere) {
+                return inflateAndCache(key, outerZip, nestedZipEntry, inflating);
+            }
+            try {
+                inflating.join();
+            } catch (CompletionException e) {
+                throw new IOException("Could not inflate nested archive " + key, e.getCause());
+            }
+            // Look again: the archive may have been evicted before this thread could take a hold on it
+        }
+    }
+
+    private static NestedZipArchive inflateAndCache(String key, File outerZip, ZipEntry nestedZipEntry,
+                                                    CompletableFuture<NestedZipArchive> inflating) throws IOException {
+        NestedZipArchive archive;
+        try {
+            Path inflatedFile = inflate(outerZip, nestedZipEntry);
+            try {
+                archive = new NestedZipArchive(key, inflatedFile);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(inflatedFile);
+                throw e;
+            }
+        } catch (IOException | RuntimeException e) {
+            synchronized (CACHE) {
+                INFLATING.remove(key);
+            }
+            inflating.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (CACHE) {
+            INFLATING.remove(key);
+            CACHE.put(key, archive);
+            cachedBytes += archive.size;
+            archive.users++;
+            evictUnused();
+        }
+        inflating.complete(archive);
+        return archive;
+    }
+
+    private static Path inflate(File outerZip, ZipEntry nestedZipEntry) throws IOException {
+        long start = System.nanoTime();
+        Path inflatedFile = Files.createTempFile("nested-", ".zip");
+        inflatedFile.toFile().deleteOnExit();
+        try (ZipFile outer = new ZipFile(outerZip, StandardCharsets.UTF_8);
+             InputStream nestedStream = outer.getInputStream(outer.getEntry(nestedZipEntry.getName()))) {
+            Files.copy(nestedStream, inflatedFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(inflatedFile);
+            throw e;
+        }
+        LOG.info("Inflated nested archive {} from {} in {} ms", nestedZipEntry.getName(), outerZip.getName(),
+                (System.nanoTime() - start) / 1_000_000);
+        return inflatedFile;
+    }
+
+    /**
+     * Closes and deletes least recently used archives nobody is using until the cache fits its byte budget.
+     */
+    private static void evictUnused() {
+        Iterator<NestedZipArchive> iterator = CACHE.values().iterator();
+        while (cachedBytes > CACHE_BYTES && iterator.hasNext()) {
+            NestedZipArchive archive = iterator.next();
+            if (archive.users == 0) {
+                iterator.remove();
+                cachedBytes -= archive.size;
+                archive.discard();
+            }
+        }
+    }
+
+    private void discard() {
+        try {
+            zipFile.close();
+            Files.deleteIfExists(inflatedFile);
+        } catch (IOException e) {
+            LOG.warn("Could not remove inflated nested archive " + inflatedFile, e);
+        }
+    }
+
+    /**
+     * Streams an inner entry, located through the central directory index rather than a scan.
+     */
+    public InputStream getInputStream(String entryName) throws IOException {
+        ZipEntry entry = zipFile.getEntry(entryName);
+        if (entry == null) {
+            throw new IOException("No entry " + entryName + " in nested archive " + key);
+        }
+        return zipFile.getInputStream(entry);
+    }
+
+    /**
+     * @return the inner entries, with the sizes and CRCs the inner archive records for them
+     */
+    public List<ZipEntry> entries() {
+        List<ZipEntry> entries = new ArrayList<>(zipFile.size());
+        zipFile.stream().forEach(entries::add);
+        return entries;
+    }
+
+    /**
+     * Adds another hold on an archive the caller already holds, to be paired with a {@link #release()}.
+     */
+    public void retain() {
+        synchronized (CACHE) {
+            users++;
+        }
+    }
+
+    /**
+     * Gives up this user's hold on the archive, which may then be evicted when the cache is over budget.
+     */
+    public void release() {
+        synchronized (CACHE) {
+            if (users > 0) {
+                users--;
+            }
+            evictUnused();
+        }
+    }
+
+    /**
+     * Discards every cached archive, whether in use or not. Intended for shutdown.
+     */
+    public static void clearCache() {
+        synchronized (CACHE) {
+            for (Map.Entry<String, NestedZipArchive> entry : CACHE.entrySet()) {
+                entry.getValue().discard();
+            }
+            CACHE.clear();
+            cachedBytes = 0;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package dev.ikm.load;
+
+import dev.ikm.snomedct.entitytransformer.SnomedUtility;
+
+import java.util.Arrays;
+
+/**
+ * Tokenizes a SNOMED OWL functional syntax axiom in one pass and renders it in the public id form
+ * {@code SctOwlUtilities.sctToLogicalExpression} reads.
+ * <p>
+ * While scanning, the lexer notes whether the keywords and names mention a property or a property chain, and keeps
+ * each SCTID as a {@code long} token. The public id text for an SCTID is produced by
+ * {@link SnomedUtility#owlAxiomIdsToPublicIds(String)} and kept for the next axiom, for up to
+ * {@value ImportAndTransform#PUBLIC_ID_CACHE_SIZE_PROPERTY} SCTIDs across all lexers. Rendering copies the source
+ * between tokens and substitutes that text instead of running the identifier rewrite, lower casing and keyword
+ * replacement passes over every axiom string. Instances are reused from axiom to axiom and are not thread safe.
+ * <p>
+ * The output matches those passes for the axioms of the OWL expression refset, but not for every string: the
+ * passes searched the whole axiom text for "property", "objectpropertychain" and the property keywords they
+ * rewrote, while the lexer only looks at keyword and name tokens. A string literal that contains one of those words
+ * therefore neither sends a class axiom to the property builder nor is rewritten, where the passes did both.
+ */
+final class OwlAxiomLexer {
+    private static final byte KEYWORD = 0;
+    private static final byte OPEN = 1;
+    private static final byte CLOSE = 2;
+    private static final byte SCTID = 3;
+    private static final byte LITERAL = 4;
+    private static final byte NAME = 5;
+
+    private static final int PUBLIC_ID_CACHE_SIZE =
+            Integer.getInteger(ImportAndTransform.PUBLIC_ID_CACHE_SIZE_PROPERTY, 1 << 20);
+    private static final ConcurrentLongMap<String> PUBLIC_ID_TEXT =
+            new ConcurrentLongMap<>(Math.min(PUBLIC_ID_CACHE_SIZE, 1 << 19));
+    /** Set once the cache holds {@link #PUBLIC_ID_CACHE_SIZE} SCTIDs; concurrent misses may add a few more. */
+    private static volatile boolean publicIdTextFull = PUBLIC_ID_CACHE_SIZE <= 0;
+
+    private String source;
+    private int tokenCount;
+    private byte[] types = new byte[64];
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private long[] sctids = new long[64];
+    private boolean mentionsProperty;
+    private boolean hasPropertyChain;
+
+    /**
+     * Tokenizes an axiom, replacing the state of the previous one.
+     */
+    OwlAxiomLexer lex(String axiom) {
+        this.source = axiom;
+        this.tokenCount = 0;
+        this.mentionsProperty = false;
+        this.hasPropertyChain = false;
+        int length = axiom.length();
+        int i = 0;
+        while (i < length) {
+            char c = axiom.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(') {
+                add(OPEN, i, i + 1, 0);
+                i++;
+            } else if (c == ')') {
+                add(CLOSE, i, i + 1, 0);
+                i++;
+            } else if (c == '"') {
+                i = lexLiteral(i);
+            } else if (c == ':' && i + 1 < length && isDigit(axiom.charAt(i + 1))) {
+                int start = i++;
+                long sctid = 0;
+                while (i < length && isDigit(axiom.charAt(i))) {
+                    sctid = sctid * 10 + axiom.charAt(i++) - '0';
+                }
+                if (i < length && !isDelimiter(axiom.charAt(i))) {
+                    i = lexWord(start);
+                } else {
+                    add(SCTID, start, i, sctid);
+                }
+            } else {
+                i = lexWord(i);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return true when a keyword or name mentions "property", which selects the property builder input; string
+     * literals are not searched
+     */
+    boolean mentionsProperty() {
+        return mentionsProperty;
+    }
+
+    boolean hasPropertyChain() {
+        return hasPropertyChain;
+    }
+
+    /**
+     * Appends the axiom with each SCTID in public id form, the text {@code owlAxiomIdsToPublicIds} produces.
+     */
+    void appendPublicIdForm(StringBuilder builder) {
+        render(builder, false);
+    }
+
+    /**
+     * Appends a property axiom restated as a class axiom: lower cased, with {@code SubObjectPropertyOf} and
+     * {@code SubDataPropertyOf} replaced by {@code " subclassof"}.
+     */
+    void appendAsClassAxiom(StringBuilder builder) {
+        render(builder, true);
+    }
+
+    private void render(StringBuilder builder, boolean asClassAxiom) {
+        int copied = 0;
+        for (int i = 0; i < tokenCount; i++) {
+            byte type = types[i];
+            boolean rewriteKeyword = asClassAxiom && type == KEYWORD && (is(i, "SubObjectPropertyOf") || is(i, "SubDataPropertyOf"));
+            if (type != SCTID && !rewriteKeyword) {
+                continue;
+            }
+            append(builder, source, copied, starts[i], asClassAxiom);
+            if (rewriteKeyword) {
+                builder.append(" subclassof");
+            } else {
+                append(builder, publicIdText(sctids[i]), 0, -1, asClassAxiom);
+            }
+            copied = ends[i];
+        }
+        append(builder, source, copied, source.length(), asClassAxiom);
+    }
+
+    private static void append(StringBuilder builder, String text, int from, int to, boolean lowerCase) {
+        int end = to < 0 ? text.length() : to;
+        if (!lowerCase) {
+            builder.append(text, from, end);
+            return;
+        }
+        for (int i = from; i < end; i++) {
+            builder.append(Character.toLowerCase(text.charAt(i)));
+        }
+    }
+
+    private static String publicIdText(long sctid) {
+        String text = PUBLIC_ID_TEXT.get(sctid);
+        if (text == null) {
+            text = SnomedUtility.owlAxiomIdsToPublicIds(":" + sctid);
+            if (!publicIdTextFull) {
+                PUBLIC_ID_TEXT.putIfAbsent(sctid, text);
+                publicIdTextFull = PUBLIC_ID_TEXT.size() >= PUBLIC_ID_CACHE_SIZE;
+            }
+        }
+        return text;
+    }
+
+    private int lexLiteral(int start) {
+        int length = source.length();
+        int i = start + 1;
+        while (i < length && source.charAt(i) != '"') {
+            i += source.charAt(i) == '\\' ? 2 : 1;
+        }
+        i = Math.min(i + 1, length);
+        // datatype suffix such as ^^xsd:integer
+        while (i < length && !isDelimiter(source.charAt(i))) {
+            i++;
+        }
+        add(LITERAL, start, i, 0);
+        return i;
+    }
+
+    private int lexWord(int start) {
+        int length = source.length();
+        int i = start;
+        boolean keyword = Character.isLetter(source.charAt(start));
+        while (i < length && !isDelimiter(source.charAt(i))) {
+            if (source.charAt(i) == ':' || source.charAt(i) == '<') {
+                keyword = false;
+            }
+            i++;
+        }
+        add(keyword ? KEYWORD : NAME, start, i, 0);
+        int token = tokenCount - 1;
+        if (containsIgnoreCase(start, i, "property")) {
+            mentionsProperty = true;
+        }
+        if (keyword && is(token, "ObjectPropertyChain")) {
+            hasPropertyChain = true;
+        }
+        return i;
+    }
+
+    private boolean is(int token, String keyword) {
+        return ends[token] - starts[token] == keyword.length()
+                && source.regionMatches(true, starts[token], keyword, 0, keyword.length());
+    }
+
+    private boolean containsIgnoreCase(int start, int end, String text) {
+        for (int i = start; i <= end - text.length(); i++) {
+            if (source.regionMatches(true, i, text, 0, text.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(byte type, int start, int end, long sctid) {
+        if (tokenCount == types.length) {
+            int capacity = tokenCount * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            sctids = Arrays.copyOf(sctids, capacity);
+        }
+        types[tokenCount] = type;
+        starts[tokenCount] = start;
+        ends[tokenCount] = end;
+        sctids[tokenCount] = sctid;
+        tokenCount++;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDelimiter(char c) {
+        return c == '(' || c == ')' || c == '"' || Character.isWhitespace(c);
+    }
+}
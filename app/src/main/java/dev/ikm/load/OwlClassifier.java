@@ -0,0 +1,127 @@
+package dev.ikm.load;
+
+import dev.ikm.tinkar.coordinate.Calculators;
+import dev.ikm.tinkar.reasoner.service.ReasonerService;
+import dev.ikm.tinkar.terms.TinkarTerm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classifies the {@link TinkarTerm#EL_PLUS_PLUS_STATED_AXIOMS_PATTERN} content with a {@link ReasonerService} found
+ * through the {@link ServiceLoader}, and writes the results to
+ * {@link TinkarTerm#EL_PLUS_PLUS_INFERRED_AXIOMS_PATTERN}.
+ * <p>
+ * Every stated axiom is loaded once this run's axioms have been committed and classified in full. The reasoners keep
+ * what they would need to reclassify a few concepts in memory only, so a later run has nothing to build on and
+ * classifying less than the whole terminology is not possible here. The time and heap of each step are logged and
+ * added to {@link ImportMetrics}, whose summary lets runs be compared.
+ */
+final class OwlClassifier {
+    private static final Logger LOG = LoggerFactory.getLogger(OwlClassifier.class);
+
+    static final String DEFAULT_REASONER = "ElkSnomedReasonerService";
+
+    private final ReasonerService reasoner;
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+
+    OwlClassifier(ReasonerService reasoner) {
+        this.reasoner = reasoner;
+    }
+
+    /**
+     * Chooses the classification {@value ImportAndTransform#CLASSIFY_PROPERTY} asks for: {@code none}, the default,
+     * or {@code full}.
+     *
+     * @return the classifier, or null when classification is off
+     */
+    static OwlClassifier fromSystemProperties() {
+        String requested = System.getProperty(ImportAndTransform.CLASSIFY_PROPERTY, "none").toLowerCase(Locale.ROOT);
+        return switch (requested) {
+            case "none" -> null;
+            case "full" -> new OwlClassifier(reasoner(System.getProperty(ImportAndTransform.REASONER_PROPERTY, DEFAULT_REASONER)));
+            default -> throw new IllegalArgumentException("Unknown " + ImportAndTransform.CLASSIFY_PROPERTY + ": "
+                    + requested + "; only none and full are supported");
+        };
+    }
+
+    private static ReasonerService reasoner(String name) {
+        return ServiceLoader.load(ReasonerService.class).stream()
+                .filter(provider -> provider.type().getSimpleName().equals(name))
+                .findFirst()
+                .map(ServiceLoader.Provider::get)
+                .orElseThrow(() -> new IllegalStateException("No reasoner service named " + name));
+    }
+
+    /**
+     * Call once this run's stated axioms have been committed. Loads and classifies every stated axiom and writes the
+     * inferred results, which are kept when the store is saved.
+     */
+    void classify() throws Exception {
+        LOG.info("Classifying all stated axioms with {}", reasoner.getClass().getSimpleName());
+        long loadNanos = load();
+        long classifyNanos = computeInferences();
+        long writeNanos = write();
+        LOG.info("Classified {} concepts: load {} ms, classify {} ms, write {} ms, peak heap {} MB",
+                reasoner.getConceptCount(), TimeUnit.NANOSECONDS.toMillis(loadNanos),
+                TimeUnit.NANOSECONDS.toMillis(classifyNanos), TimeUnit.NANOSECONDS.toMillis(writeNanos),
+                peakHeapBytes() >> 20);
+    }
+
+    private long load() throws Exception {
+        try (ImportMetrics.Span span = ImportMetrics.global().span(ImportMetrics.Phase.REASONER_LOAD)) {
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            long start = System.nanoTime();
+            reasoner.init(Calculators.View.Default(), TinkarTerm.EL_PLUS_PLUS_STATED_AXIOMS_PATTERN,
+                    TinkarTerm.EL_PLUS_PLUS_INFERRED_AXIOMS_PATTERN);
+            reasoner.setProgressUpdater(null);
+            reasoner.extractData();
+            reasoner.loadData();
+            span.items(reasoner.getConceptCount());
+            return logStep("Loaded stated axioms of " + reasoner.getConceptCount() + " concepts", start);
+        }
+    }
+
+    private long computeInferences() {
+        try (ImportMetrics.Span span = ImportMetrics.global().span(ImportMetrics.Phase.CLASSIFY)) {
+            long start = System.nanoTime();
+            reasoner.computeInferences();
+            span.items(reasoner.getConceptCount());
+            return logStep("Computed inferences", start);
+        }
+    }
+
+    private long write() {
+        try (ImportMetrics.Span span = ImportMetrics.global().span(ImportMetrics.Phase.INFERRED_WRITE)) {
+            long start = System.nanoTime();
+            reasoner.buildNecessaryNormalForm();
+            LOG.info("Inferred results: {}", reasoner.writeInferredResults());
+            span.items(reasoner.getConceptCount());
+            return logStep("Wrote inferred results", start);
+        }
+    }
+
+    private long logStep(String step, long start) {
+        long nanos = System.nanoTime() - start;
+        LOG.info("{} in {} ms; heap {} MB used, {} MB peak", step, TimeUnit.NANOSECONDS.toMillis(nanos),
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20, peakHeapBytes() >> 20);
+        return nanos;
+    }
+
+    /**
+     * @return the sum of the peak use of each heap pool since the reasoner started loading, an upper bound on the
+     * peak heap use since the pools peak at different times
+     */
+    private long peakHeapBytes() {
+        return heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    }
+}
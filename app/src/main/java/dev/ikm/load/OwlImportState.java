@@ -0,0 +1,56 @@
+package dev.ikm.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * What the last OWL refset import left in a database: the release it came from and the latest effective time it
+ * imported.
+ * <p>
+ * Kept in the data store root next to the SpinedArrayStore files, so it travels with the database it describes. An
+ * incremental import reads only rows newer than {@link #lastEffectiveTime()}.
+ */
+record OwlImportState(String releaseIdentity, long lastEffectiveTime, long rowCount, Instant importedAt) {
+    static final String FILE_NAME = "owl-import-state.properties";
+
+    private static final String RELEASE_IDENTITY = "releaseIdentity";
+    private static final String LAST_EFFECTIVE_TIME = "lastEffectiveTime";
+    private static final String ROW_COUNT = "rowCount";
+    private static final String IMPORTED_AT = "importedAt";
+
+    static Optional<OwlImportState> load(Path directory) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        return Optional.of(new OwlImportState(properties.getProperty(RELEASE_IDENTITY),
+                Long.parseLong(properties.getProperty(LAST_EFFECTIVE_TIME)),
+                Long.parseLong(properties.getProperty(ROW_COUNT, "0")),
+                Instant.parse(properties.getProperty(IMPORTED_AT))));
+    }
+
+    void save(Path directory) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(RELEASE_IDENTITY, releaseIdentity);
+        properties.setProperty(LAST_EFFECTIVE_TIME, Long.toString(lastEffectiveTime));
+        properties.setProperty(ROW_COUNT, Long.toString(rowCount));
+        properties.setProperty(IMPORTED_AT, importedAt.toString());
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            properties.store(out, "Last OWL expression refset import; effective times are epoch milliseconds");
+        }
+        Files.move(temporary, directory.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+}
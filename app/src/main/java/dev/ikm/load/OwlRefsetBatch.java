@@ -0,0 +1,91 @@
+package dev.ikm.load;
+
+import java.util.Arrays;
+
+/**
+ * A batch of parsed OWL expression refset rows, held column by column in primitive arrays.
+ * <p>
+ * Filled by the reader stage from {@link OwlRefsetRows} and turned into semantics by the workers, so the only
+ * per-row object is the OWL expression String. Rows of one refset member are kept together: a batch that is
+ * {@link #isFull() full} still grows to take further versions of its last member, so every member's versions are
+ * converted into one semantic.
+ */
+final class OwlRefsetBatch {
+    long[] idMostSignificantBits;
+    long[] idLeastSignificantBits;
+    long[] effectiveTimes;
+    boolean[] active;
+    long[] moduleSctids;
+    long[] referencedComponentSctids;
+    String[] owlExpressions;
+    private final int capacity;
+    private int size;
+
+    OwlRefsetBatch(int capacity) {
+        this.capacity = capacity;
+        this.idMostSignificantBits = new long[capacity];
+        this.idLeastSignificantBits = new long[capacity];
+        this.effectiveTimes = new long[capacity];
+        this.active = new boolean[capacity];
+        this.moduleSctids = new long[capacity];
+        this.referencedComponentSctids = new long[capacity];
+        this.owlExpressions = new String[capacity];
+    }
+
+    /**
+     * Appends the current row.
+     */
+    void add(OwlRefsetRows rows) {
+        int row = size;
+        if (row == owlExpressions.length) {
+            grow();
+        }
+        idMostSignificantBits[row] = rows.idMostSignificantBits();
+        idLeastSignificantBits[row] = rows.idLeastSignificantBits();
+        effectiveTimes[row] = rows.effectiveTime();
+        active[row] = rows.active();
+        moduleSctids[row] = rows.moduleSctid();
+        referencedComponentSctids[row] = rows.referencedComponentSctid();
+        owlExpressions[row] = rows.owlExpression();
+        size = row + 1;
+    }
+
+    /**
+     * @return the row after the last consecutive row with the same member id as {@code from}
+     */
+    int memberEnd(int from) {
+        int to = from + 1;
+        while (to < size && idMostSignificantBits[to] == idMostSignificantBits[from]
+                && idLeastSignificantBits[to] == idLeastSignificantBits[from]) {
+            to++;
+        }
+        return to;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size >= capacity;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void grow() {
+        int length = Math.max(1, owlExpressions.length * 2);
+        idMostSignificantBits = Arrays.copyOf(idMostSignificantBits, length);
+        idLeastSignificantBits = Arrays.copyOf(idLeastSignificantBits, length);
+        effectiveTimes = Arrays.copyOf(effectiveTimes, length);
+        active = Arrays.copyOf(active, length);
+        moduleSctids = Arrays.copyOf(moduleSctids, length);
+        referencedComponentSctids = Arrays.copyOf(referencedComponentSctids, length);
+        owlExpressions = Arrays.copyOf(owlExpressions, length);
+    }
+}
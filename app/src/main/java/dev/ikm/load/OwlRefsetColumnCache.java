@@ -0,0 +1,659 @@
+package dev.ikm.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * A columnar copy of a parsed OWL expression refset file, written while an import first reads the RF2 text and
+ * memory mapped by later runs in its place, so they start writing semantics without inflating and parsing the text
+ * again.
+ * <p>
+ * Every field is a fixed-width column: the member id bits, module and referenced component SCTIDs, effective day,
+ * active flag, and the row's offset in the RF2 text, which keeps an {@link ImportCheckpoint} valid whichever source
+ * the run resumes from. The OWL expressions go into a pool that holds each expression once among the last
+ * {@value #DEDUPLICATION_WINDOW} distinct ones, enough to catch the unchanged expressions of consecutive versions of a
+ * member, packed in blocks of up to {@value #BLOCK_BYTES} bytes that are deflated unless
+ * {@value ImportAndTransform#CACHE_COMPRESS_PROPERTY} is false. Rows read the pool in about the order it was written,
+ * so the reader inflates each block once.
+ * <p>
+ * The file records the CRC and size of the zip entry it was read from and is rebuilt when they no longer match. It is
+ * only kept when every row of the entry was read, and rows are stored in the order they were read, so a sorted import
+ * has a cache of its own.
+ */
+final class OwlRefsetColumnCache {
+    private static final Logger LOG = LoggerFactory.getLogger(OwlRefsetColumnCache.class);
+
+    static final int BLOCK_BYTES = 1 << 16;
+    static final int DEDUPLICATION_WINDOW = 1 << 16;
+
+    private static final int MAGIC = 0x4F574C43; // "OWLC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 56;
+    private static final int DEFLATED = 1;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * The sections of the file in the order they follow the header, each starting on an eight byte boundary.
+     */
+    private enum Section {
+        ID_MOST_SIGNIFICANT_BITS, ID_LEAST_SIGNIFICANT_BITS, MODULE_SCTIDS, REFERENCED_COMPONENT_SCTIDS,
+        ROW_OFFSETS, EFFECTIVE_DAYS, EXPRESSION_ENTRIES, ACTIVE,
+        ENTRY_BLOCKS, ENTRY_STARTS, ENTRY_LENGTHS, BLOCK_OFFSETS, BLOCK_LENGTHS, POOL;
+
+        long bytes(int rows, int entries, int blocks, long poolBytes) {
+            return switch (this) {
+                case ID_MOST_SIGNIFICANT_BITS, ID_LEAST_SIGNIFICANT_BITS, MODULE_SCTIDS, REFERENCED_COMPONENT_SCTIDS ->
+                        Long.BYTES * (long) rows;
+                case ROW_OFFSETS -> Long.BYTES * (rows + 1L);
+                case EFFECTIVE_DAYS, EXPRESSION_ENTRIES -> Integer.BYTES * (long) rows;
+                case ACTIVE -> rows;
+                case ENTRY_BLOCKS, ENTRY_STARTS, ENTRY_LENGTHS -> Integer.BYTES * (long) entries;
+                case BLOCK_OFFSETS -> Long.BYTES * (blocks + 1L);
+                case BLOCK_LENGTHS -> Integer.BYTES * (long) blocks;
+                case POOL -> poolBytes;
+            };
+        }
+    }
+
+    private final Path file;
+    private final long sourceCrc;
+    private final long sourceSize;
+    private final boolean compress;
+
+    OwlRefsetColumnCache(Path file, long sourceCrc, long sourceSize, boolean compress) {
+        this.file = file;
+        this.sourceCrc = sourceCrc;
+        this.sourceSize = sourceSize;
+        this.compress = compress;
+    }
+
+    /**
+     * The cache of a refset entry in {@value ImportAndTransform#CACHE_DIRECTORY_PROPERTY}, unless
+     * {@value ImportAndTransform#CACHE_PROPERTY} is false.
+     *
+     * @param sorted whether the rows are read sorted by member
+     * @return the cache, or null when caching is off or the entry has no recorded CRC to check the cache against
+     */
+    static OwlRefsetColumnCache fromSystemProperties(ZipEntry entry, boolean sorted) {
+        if (!Boolean.parseBoolean(System.getProperty(ImportAndTransform.CACHE_PROPERTY, "true"))) {
+            return null;
+        }
+        if (entry.getCrc() < 0 || entry.getSize() < 0) {
+            LOG.info("No CRC recorded for {}, not caching it", entry.getName());
+            return null;
+        }
+        String name = entry.getName().substring(entry.getName().lastIndexOf('/') + 1).replace(".txt", "");
+        String cacheDirectory = System.getProperty(ImportAndTransform.CACHE_DIRECTORY_PROPERTY);
+        Path directory = cacheDirectory == null ? ImportAndTransform.buildDirectory().resolve("owl-refset-cache")
+                : Path.of(cacheDirectory);
+        return new OwlRefsetColumnCache(directory.resolve(name + (sorted ? "-sorted" : "") + ".columns"),
+                entry.getCrc(), entry.getSize(),
+                Boolean.parseBoolean(System.getProperty(ImportAndTransform.CACHE_COMPRESS_PROPERTY, "true")));
+    }
+
+    /**
+     * Maps the cache when it was written from the same source.
+     *
+     * @return the cached rows, or empty when there is no usable cache
+     */
+    Optional<OwlRefsetRows> open() throws IOException {
+        if (!Files.exists(file)) {
+            LOG.info("No OWL refset cache at {}, it will be written as the refset is read", file);
+            return Optional.empty();
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                LOG.warn("OWL refset cache {} has an unusable size of {} bytes, rebuilding it", file, channel.size());
+                return Optional.empty();
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            LOG.info("OWL refset cache {} is not of version {}, rebuilding it", file, VERSION);
+            return Optional.empty();
+        }
+        if (buffer.getLong(8) != sourceCrc || buffer.getLong(16) != sourceSize) {
+            LOG.info("OWL refset cache {} was written from {} bytes with CRC {}, the source has {} bytes with CRC {}; rebuilding it",
+                    file, buffer.getLong(16), Long.toHexString(buffer.getLong(8)), sourceSize, Long.toHexString(sourceCrc));
+            return Optional.empty();
+        }
+        CachedRows rows;
+        try {
+            rows = new CachedRows(buffer);
+        } catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+            LOG.warn("OWL refset cache {} has a corrupt header, rebuilding it", file);
+            return Optional.empty();
+        }
+        if (rows.layout[Section.values().length] != buffer.capacity()) {
+            LOG.warn("OWL refset cache {} is {} bytes, its header describes {}; rebuilding it",
+                    file, buffer.capacity(), rows.layout[Section.values().length]);
+            rows.close();
+            return Optional.empty();
+        }
+        if (!rows.blockOffsetsAscend()) {
+            LOG.warn("OWL refset cache {} has corrupt block offsets, rebuilding it", file);
+            rows.close();
+            return Optional.empty();
+        }
+        LOG.info("Reading {} OWL refset rows with {} distinct expressions from {}", rows.rows, rows.entries, file);
+        return Optional.of(rows);
+    }
+
+    /**
+     * Passes the source's rows through, writing them to the cache as they are read. The cache replaces any earlier
+     * one once the source is exhausted; a failure to write it is logged and leaves the import reading on.
+     */
+    OwlRefsetRows writeThrough(OwlRefsetRows source) {
+        try {
+            return new WriteThrough(source);
+        } catch (IOException e) {
+            LOG.warn("Cannot write OWL refset cache " + file, e);
+            return source;
+        }
+    }
+
+    /**
+     * @return the start of each section, and at the end the size of the file
+     */
+    private static long[] layout(int headerLength, int rows, int entries, int blocks, long poolBytes) {
+        Section[] sections = Section.values();
+        long[] starts = new long[sections.length + 1];
+        starts[0] = align(HEADER_BYTES + headerLength);
+        for (Section section : sections) {
+            starts[section.ordinal() + 1] = align(starts[section.ordinal()] + section.bytes(rows, entries, blocks, poolBytes));
+        }
+        return starts;
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static void write(FileChannel out, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Writes zeros up to the position.
+     */
+    private static void pad(FileChannel out, long position) throws IOException {
+        write(out, ByteBuffer.allocate(Math.toIntExact(position - out.position())));
+    }
+
+    private final class WriteThrough implements OwlRefsetRows {
+        private final OwlRefsetRows source;
+        private final Path[] sectionFiles = new Path[Section.values().length];
+        private final DataOutputStream[] sections = new DataOutputStream[Section.values().length];
+        private final Map<String, Integer> recentEntries = new LinkedHashMap<>(DEDUPLICATION_WINDOW * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > DEDUPLICATION_WINDOW;
+            }
+        };
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private final long start = System.nanoTime();
+        private byte[] block = new byte[BLOCK_BYTES];
+        private byte[] deflated = new byte[BLOCK_BYTES];
+        private int blockUsed;
+        private int blocks;
+        private long poolBytes;
+        private int entries;
+        private int rows;
+        private boolean writing = true;
+        private long msb;
+        private long lsb;
+        private long effectiveTime;
+        private boolean active;
+        private long moduleSctid;
+        private long referencedComponentSctid;
+        private String owlExpression;
+
+        private WriteThrough(OwlRefsetRows source) throws IOException {
+            this.source = source;
+            Files.createDirectories(file.getParent());
+            try {
+                for (Section section : Section.values()) {
+                    sectionFiles[section.ordinal()] = file.resolveSibling(
+                            file.getFileName() + "." + section.name().toLowerCase(Locale.ROOT) + ".tmp");
+                    sections[section.ordinal()] = new DataOutputStream(new BufferedOutputStream(
+                            Files.newOutputStream(sectionFiles[section.ordinal()]), 1 << 16));
+                }
+                section(Section.ROW_OFFSETS).writeLong(source.nextRowOffset());
+            } catch (IOException e) {
+                abandon();
+                throw e;
+            }
+        }
+
+        @Override
+        public List<String> header() {
+            return source.header();
+        }
+
+        @Override
+        public boolean nextRow() throws IOException {
+            if (!source.nextRow()) {
+                if (writing) {
+                    try {
+                        finish();
+                    } catch (IOException e) {
+                        LOG.warn("Cannot write OWL refset cache " + file, e);
+                        abandon();
+                    }
+                }
+                return false;
+            }
+            msb = source.idMostSignificantBits();
+            lsb = source.idLeastSignificantBits();
+            effectiveTime = source.effectiveTime();
+            active = source.active();
+            moduleSctid = source.moduleSctid();
+            referencedComponentSctid = source.referencedComponentSctid();
+            owlExpression = source.owlExpression();
+            if (writing) {
+                try {
+                    append();
+                } catch (IOException | RuntimeException e) {
+                    LOG.warn("Cannot write OWL refset cache " + file, e);
+                    abandon();
+                }
+            }
+            return true;
+        }
+
+        private void append() throws IOException {
+            if (effectiveTime % MILLIS_PER_DAY != 0) {
+                throw new IllegalStateException("Effective time is not a whole day: " + effectiveTime);
+            }
+            section(Section.ID_MOST_SIGNIFICANT_BITS).writeLong(msb);
+            section(Section.ID_LEAST_SIGNIFICANT_BITS).writeLong(lsb);
+            section(Section.MODULE_SCTIDS).writeLong(moduleSctid);
+            section(Section.REFERENCED_COMPONENT_SCTIDS).writeLong(referencedComponentSctid);
+            section(Section.ROW_OFFSETS).writeLong(source.nextRowOffset());
+            section(Section.EFFECTIVE_DAYS).writeInt(Math.toIntExact(effectiveTime / MILLIS_PER_DAY));
+            section(Section.EXPRESSION_ENTRIES).writeInt(entry(owlExpression));
+            section(Section.ACTIVE).writeByte(active ? 1 : 0);
+            rows = Math.addExact(rows, 1);
+        }
+
+        /**
+         * @return the pool entry of the expression, added unless it is among the recent entries
+         */
+        private int entry(String expression) throws IOException {
+            Integer recent = recentEntries.get(expression);
+            if (recent != null) {
+                return recent;
+            }
+            byte[] bytes = expression.getBytes(StandardCharsets.UTF_8);
+            if (blockUsed > 0 && blockUsed + bytes.length > block.length) {
+                writeBlock();
+            }
+            if (bytes.length > block.length) {
+                block = new byte[bytes.length];
+            }
+            System.arraycopy(bytes, 0, block, blockUsed, bytes.length);
+            section(Section.ENTRY_BLOCKS).writeInt(blocks);
+            section(Section.ENTRY_STARTS).writeInt(blockUsed);
+            section(Section.ENTRY_LENGTHS).writeInt(bytes.length);
+            blockUsed += bytes.length;
+            int entry = entries++;
+            recentEntries.put(expression, entry);
+            return entry;
+        }
+
+        private void writeBlock() throws IOException {
+            section(Section.BLOCK_OFFSETS).writeLong(poolBytes);
+            section(Section.BLOCK_LENGTHS).writeInt(blockUsed);
+            if (compress) {
+                deflater.reset();
+                deflater.setInput(block, 0, blockUsed);
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int length = deflater.deflate(deflated);
+                    section(Section.POOL).write(deflated, 0, length);
+                    poolBytes += length;
+                }
+            } else {
+                section(Section.POOL).write(block, 0, blockUsed);
+                poolBytes += blockUsed;
+            }
+            blocks++;
+            blockUsed = 0;
+        }
+
+        private void finish() throws IOException {
+            if (blockUsed > 0) {
+                writeBlock();
+            }
+            section(Section.BLOCK_OFFSETS).writeLong(poolBytes);
+            for (DataOutputStream section : sections) {
+                section.close();
+            }
+            byte[] headerLine = String.join("\t", source.header()).getBytes(StandardCharsets.UTF_8);
+            long[] layout = layout(headerLine.length, rows, entries, blocks, poolBytes);
+            Path assembled = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(assembled, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + headerLine.length)
+                        .putInt(MAGIC).putInt(VERSION)
+                        .putLong(sourceCrc).putLong(sourceSize)
+                        .putInt(rows).putInt(entries).putInt(blocks).putInt(compress ? DEFLATED : 0)
+                        .putInt(headerLine.length).putInt(0)
+                        .putLong(poolBytes)
+                        .put(headerLine)
+                        .flip();
+                write(out, header);
+                for (Section section : Section.values()) {
+                    pad(out, layout[section.ordinal()]);
+                    Path sectionFile = sectionFiles[section.ordinal()];
+                    try (FileChannel in = FileChannel.open(sectionFile, StandardOpenOption.READ)) {
+                        long expected = section.bytes(rows, entries, blocks, poolBytes);
+                        if (in.size() != expected) {
+                            throw new IllegalStateException(section + " has " + in.size() + " bytes, expected " + expected);
+                        }
+                        for (long position = 0; position < in.size(); ) {
+                            position += in.transferTo(position, in.size() - position, out);
+                        }
+                    }
+                }
+                pad(out, layout[Section.values().length]);
+            }
+            Files.move(assembled, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writing = false;
+            deleteSectionFiles();
+            LOG.info("Wrote OWL refset cache {}: {} rows, {} distinct expressions in {} blocks, {} MB, in {} ms", file,
+                    rows, entries, blocks, Files.size(file) >> 20, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+
+        private DataOutputStream section(Section section) {
+            return sections[section.ordinal()];
+        }
+
+        /**
+         * Stops writing the cache and deletes what was written of it.
+         */
+        private void abandon() {
+            writing = false;
+            for (DataOutputStream section : sections) {
+                if (section != null) {
+                    try {
+                        section.close();
+                    } catch (IOException e) {
+                        LOG.debug("Closing an OWL refset cache section failed", e);
+                    }
+                }
+            }
+            deleteSectionFiles();
+            try {
+                Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".tmp"));
+            } catch (IOException e) {
+                LOG.warn("Cannot delete the partial OWL refset cache of " + file, e);
+            }
+        }
+
+        private void deleteSectionFiles() {
+            for (Path sectionFile : sectionFiles) {
+                if (sectionFile != null) {
+                    try {
+                        Files.deleteIfExists(sectionFile);
+                    } catch (IOException e) {
+                        LOG.warn("Cannot delete " + sectionFile, e);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public long rowOffset() {
+            return source.rowOffset();
+        }
+
+        @Override
+        public long nextRowOffset() {
+            return source.nextRowOffset();
+        }
+
+        @Override
+        public long readNanos() {
+            return source.readNanos();
+        }
+
+        @Override
+        public long idMostSignificantBits() {
+            return msb;
+        }
+
+        @Override
+        public long idLeastSignificantBits() {
+            return lsb;
+        }
+
+        @Override
+        public long effectiveTime() {
+            return effectiveTime;
+        }
+
+        @Override
+        public boolean active() {
+            return active;
+        }
+
+        @Override
+        public long moduleSctid() {
+            return moduleSctid;
+        }
+
+        @Override
+        public long referencedComponentSctid() {
+            return referencedComponentSctid;
+        }
+
+        @Override
+        public String owlExpression() {
+            return owlExpression;
+        }
+
+        @Override
+        public void close() throws Exception {
+            try {
+                source.close();
+            } finally {
+                deflater.end();
+                if (writing) {
+                    LOG.info("Not every OWL refset row was read, discarding the partial cache of {}", file);
+                    abandon();
+                }
+            }
+        }
+    }
+
+    private static final class CachedRows implements OwlRefsetRows {
+        private final ByteBuffer buffer;
+        private final int rows;
+        private final int entries;
+        private final int blocks;
+        private final boolean deflated;
+        private final long poolBytes;
+        private final long[] layout;
+        private final List<String> header;
+        private final Inflater inflater = new Inflater();
+        private byte[] block = new byte[BLOCK_BYTES];
+        private int loadedBlock = -1;
+        private int lastEntry = -1;
+        private String lastExpression;
+        private int row = -1;
+
+        private CachedRows(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.rows = buffer.getInt(24);
+            this.entries = buffer.getInt(28);
+            this.blocks = buffer.getInt(32);
+            this.deflated = (buffer.getInt(36) & DEFLATED) != 0;
+            int headerLength = buffer.getInt(40);
+            this.poolBytes = buffer.getLong(48);
+            this.layout = layout(headerLength, rows, entries, blocks, poolBytes);
+            byte[] headerLine = new byte[headerLength];
+            buffer.get(HEADER_BYTES, headerLine);
+            this.header = List.of(new String(headerLine, StandardCharsets.UTF_8).split("\t"));
+        }
+
+        @Override
+        public List<String> header() {
+            return header;
+        }
+
+        @Override
+        public boolean nextRow() {
+            if (row < rows) {
+                row++;
+            }
+            return row < rows;
+        }
+
+        @Override
+        public long rowOffset() {
+            return buffer.getLong(index(Section.ROW_OFFSETS, Long.BYTES, row));
+        }
+
+        @Override
+        public long nextRowOffset() {
+            return buffer.getLong(index(Section.ROW_OFFSETS, Long.BYTES, Math.min(row + 1, rows)));
+        }
+
+        @Override
+        public long readNanos() {
+            return 0;
+        }
+
+        @Override
+        public long idMostSignificantBits() {
+            return buffer.getLong(index(Section.ID_MOST_SIGNIFICANT_BITS, Long.BYTES, row));
+        }
+
+        @Override
+        public long idLeastSignificantBits() {
+            return buffer.getLong(index(Section.ID_LEAST_SIGNIFICANT_BITS, Long.BYTES, row));
+        }
+
+        @Override
+        public long effectiveTime() {
+            return buffer.getInt(index(Section.EFFECTIVE_DAYS, Integer.BYTES, row)) * MILLIS_PER_DAY;
+        }
+
+        @Override
+        public boolean active() {
+            return buffer.get(index(Section.ACTIVE, 1, row)) != 0;
+        }
+
+        @Override
+        public long moduleSctid() {
+            return buffer.getLong(index(Section.MODULE_SCTIDS, Long.BYTES, row));
+        }
+
+        @Override
+        public long referencedComponentSctid() {
+            return buffer.getLong(index(Section.REFERENCED_COMPONENT_SCTIDS, Long.BYTES, row));
+        }
+
+        /**
+         * Decodes the row's expression from its pool block, which is inflated once for all the expressions in it.
+         * Consecutive rows with the same expression share one String.
+         */
+        @Override
+        public String owlExpression() {
+            int entry = buffer.getInt(index(Section.EXPRESSION_ENTRIES, Integer.BYTES, row));
+            if (entry != lastEntry) {
+                load(buffer.getInt(index(Section.ENTRY_BLOCKS, Integer.BYTES, entry)));
+                lastExpression = new String(block, buffer.getInt(index(Section.ENTRY_STARTS, Integer.BYTES, entry)),
+                        buffer.getInt(index(Section.ENTRY_LENGTHS, Integer.BYTES, entry)), StandardCharsets.UTF_8);
+                lastEntry = entry;
+            }
+            return lastExpression;
+        }
+
+        private void load(int blockIndex) {
+            if (blockIndex == loadedBlock) {
+                return;
+            }
+            int from = (int) (layout[Section.POOL.ordinal()] + buffer.getLong(index(Section.BLOCK_OFFSETS, Long.BYTES, blockIndex)));
+            int to = (int) (layout[Section.POOL.ordinal()] + buffer.getLong(index(Section.BLOCK_OFFSETS, Long.BYTES, blockIndex + 1)));
+            int length = buffer.getInt(index(Section.BLOCK_LENGTHS, Integer.BYTES, blockIndex));
+            if (block.length < length) {
+                block = new byte[length];
+            }
+            if (deflated) {
+                inflater.reset();
+                inflater.setInput(buffer.slice(from, to - from));
+                try {
+                    int inflated = 0;
+                    while (inflated < length && !inflater.finished()) {
+                        int count = inflater.inflate(block, inflated, length - inflated);
+                        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            throw new IllegalStateException("OWL refset cache block " + blockIndex
+                                    + " is truncated after " + inflated + " of " + length
+                                    + " bytes; delete the cache to rebuild it from the refset");
+                        }
+                        inflated += count;
+                    }
+                    if (inflated != length) {
+                        throw new IllegalStateException("OWL refset cache block " + blockIndex + " inflated to "
+                                + inflated + " bytes, expected " + length);
+                    }
+                } catch (DataFormatException e) {
+                    throw new IllegalStateException("Corrupt OWL refset cache block " + blockIndex, e);
+                }
+            } else {
+                buffer.get(from, block, 0, length);
+            }
+            loadedBlock = blockIndex;
+        }
+
+        /**
+         * @return true when the pool blocks start at zero, follow each other and end at the end of the pool
+         */
+        private boolean blockOffsetsAscend() {
+            long previous = 0;
+            for (int blockIndex = 0; blockIndex <= blocks; blockIndex++) {
+                long offset = buffer.getLong(index(Section.BLOCK_OFFSETS, Long.BYTES, blockIndex));
+                if (blockIndex == 0 ? offset != 0 : offset < previous) {
+                    return false;
+                }
+                previous = offset;
+            }
+            return previous == poolBytes;
+        }
+
+        private int index(Section section, int width, int element) {
+            return (int) (layout[section.ordinal()] + (long) width * element);
+        }
+
+        @Override
+        public void close() {
+            inflater.end();
+        }
+    }
+}
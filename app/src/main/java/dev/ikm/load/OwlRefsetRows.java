@@ -0,0 +1,59 @@
+package dev.ikm.load;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The rows of an OWL expression refset file, one at a time, as the import reads them: from the RF2 text through a
+ * {@link TokenizedOwlRefsetRows}, or from an {@link OwlRefsetColumnCache} written by an earlier run. Offsets are
+ * those of the RF2 text either way, so an {@link ImportCheckpoint} taken on one source can be resumed on the other.
+ * After {@link #nextRow()} returns {@code true} the fields of the current row are read with the typed accessors.
+ */
+interface OwlRefsetRows extends AutoCloseable {
+    /**
+     * @return the field names of the file's header line
+     */
+    List<String> header();
+
+    /**
+     * Advances to the next row.
+     *
+     * @return false once the rows are exhausted
+     */
+    boolean nextRow() throws IOException;
+
+    /**
+     * @return the offset in the RF2 text of the current row
+     */
+    long rowOffset();
+
+    /**
+     * @return the offset in the RF2 text of the first byte after the current row, where reading would resume
+     */
+    long nextRowOffset();
+
+    /**
+     * @return the time spent reading from the source so far, zero for a mapped source
+     */
+    long readNanos();
+
+    long idMostSignificantBits();
+
+    long idLeastSignificantBits();
+
+    /**
+     * @return the effective time as midnight UTC in epoch milliseconds
+     */
+    long effectiveTime();
+
+    boolean active();
+
+    long moduleSctid();
+
+    long referencedComponentSctid();
+
+    /**
+     * Decodes the OWL expression, the only accessor that may allocate.
+     */
+    String owlExpression();
+}
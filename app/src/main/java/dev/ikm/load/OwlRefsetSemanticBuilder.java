@@ -0,0 +1,79 @@
+package dev.ikm.load;
+
+import dev.ikm.tinkar.common.id.PublicIds;
+import dev.ikm.tinkar.common.service.PrimitiveData;
+import dev.ikm.tinkar.entity.SemanticRecord;
+import dev.ikm.tinkar.entity.SemanticVersionRecord;
+import dev.ikm.tinkar.entity.StampEntity;
+import dev.ikm.tinkar.terms.State;
+import org.eclipse.collections.api.factory.Lists;
+
+import java.util.UUID;
+
+import static dev.ikm.load.ImportAndTransform.COMMENT_PATTERN;
+
+/**
+ * Turns parsed rows of the RF2 OWL expression refset into {@link ImportAndTransform#COMMENT_PATTERN} semantics.
+ * <p>
+ * Shared by the serial and the pipelined import, so one instance may be called from several worker threads. Each
+ * refset member becomes one semantic carrying all of its versions, so the entity provider stores it once instead of
+ * merging a version at a time.
+ */
+class OwlRefsetSemanticBuilder {
+    private final StampCache stamps;
+    private final SctidResolutionCache sctids;
+
+    OwlRefsetSemanticBuilder(StampCache stamps, SctidResolutionCache sctids) {
+        this.stamps = stamps;
+        this.sctids = sctids;
+    }
+
+    /*
+id	effectiveTime	active	moduleId	refsetId	referencedComponentId	owlExpression
+80001735-381a-4c86-a986-a6ebd875f6c7	20190731	1	900000000000207008	733073007	42061009	SubClassOf(:42061009 :398334008)
+80002779-6efa-491f-88d3-8a393898bbe4	20190731	1	900000000000207008	733073007	239604004	SubClassOf(:239604004 ObjectIntersectionOf(:265114005 ObjectSomeValuesFrom(:609096000 ObjectIntersectionOf(ObjectSomeValuesFrom(:260686004 :129377008) ObjectSomeValuesFrom(:405813007 :76505004)))))
+     */
+    /**
+     * Builds one semantic with a version for each of the rows {@code from} to {@code to}, which must all be rows of
+     * the same refset member. A row whose stamp is already among the versions is skipped.
+     */
+    SemanticRecord build(OwlRefsetBatch batch, int from, int to) {
+        long start = System.nanoTime();
+        StampEntity firstStamp = stamp(batch, from);
+        long stampNanos = System.nanoTime() - start;
+        SemanticRecord semanticRecord = SemanticRecord.build(new UUID(batch.idMostSignificantBits[from], batch.idLeastSignificantBits[from]), // Semantic UUID
+                COMMENT_PATTERN.nid(), // Pattern nid
+                sctids.nid(batch.referencedComponentSctids[from]),
+                firstStamp.lastVersion(),
+                Lists.immutable.of(batch.owlExpressions[from]));
+        for (int row = from + 1; row < to; row++) {
+            long stampStart = System.nanoTime();
+            int stampNid = stamp(batch, row).nid();
+            stampNanos += System.nanoTime() - stampStart;
+            if (semanticRecord.versions().anySatisfy(version -> version.stampNid() == stampNid)) {
+                continue;
+            }
+            semanticRecord = semanticRecord.with(new SemanticVersionRecord(semanticRecord, stampNid,
+                    Lists.immutable.of(batch.owlExpressions[row]))).build();
+        }
+        ImportMetrics metrics = ImportMetrics.global();
+        metrics.record(ImportMetrics.Phase.STAMP, stampNanos, to - from, -1);
+        metrics.record(ImportMetrics.Phase.BUILD, System.nanoTime() - start - stampNanos, 1, -1);
+        return semanticRecord;
+    }
+
+    /**
+     * Adds the semantic of the current row to an index without building it, for a row an earlier run already wrote.
+     */
+    void index(OwlRefsetRows rows, OwlSemanticIndex.Builder indexBuilder) {
+        UUID semanticUuid = new UUID(rows.idMostSignificantBits(), rows.idLeastSignificantBits());
+        indexBuilder.add(sctids.nid(rows.referencedComponentSctid()),
+                PrimitiveData.nid(PublicIds.of(semanticUuid)));
+    }
+
+    private StampEntity stamp(OwlRefsetBatch batch, int row) {
+        State state = batch.active[row] ? State.ACTIVE : State.INACTIVE;
+        long moduleSctid = batch.moduleSctids[row];
+        return stamps.stamp(state, batch.effectiveTimes[row], sctids.nid(moduleSctid), sctids.publicId(moduleSctid));
+    }
+}
@@ -0,0 +1,225 @@
+package dev.ikm.load;
+
+import org.eclipse.collections.api.factory.primitive.IntLists;
+import org.eclipse.collections.api.list.primitive.ImmutableIntList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed sparse row index from concept nid to the nids of its {@link ImportAndTransform#COMMENT_PATTERN}
+ * semantics.
+ * <p>
+ * Three int arrays hold the index: the distinct concept nids in ascending order, the offset of each concept's run
+ * in the semantic array, and the semantic nids themselves. The importer fills a {@link Builder} as it writes rows,
+ * and the result is saved as {@value #FILE_NAME} next to the database and memory mapped on later opens, so reports
+ * and axiom generation can scan concepts with OWL axioms sequentially instead of querying the entity provider once
+ * per concept.
+ */
+final class OwlSemanticIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(OwlSemanticIndex.class);
+
+    static final String FILE_NAME = "owl-semantic-index.bin";
+    private static final int MAGIC = 0x4F574C49; // "OWLI"
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 4;
+
+    private final IntBuffer conceptNids;
+    private final IntBuffer offsets;
+    private final IntBuffer semanticNids;
+
+    private OwlSemanticIndex(IntBuffer conceptNids, IntBuffer offsets, IntBuffer semanticNids) {
+        this.conceptNids = conceptNids;
+        this.offsets = offsets;
+        this.semanticNids = semanticNids;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Maps a previously saved index.
+     *
+     * @return the index, or empty when the directory has none or it is not a complete index of this version
+     */
+    static Optional<OwlSemanticIndex> open(Path directory) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_INTS * Integer.BYTES || channel.size() > Integer.MAX_VALUE) {
+                LOG.warn("Ignoring {}: {} bytes is not the size of an OWL semantic index", file, channel.size());
+                return Optional.empty();
+            }
+            IntBuffer ints = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            if (ints.get(0) != MAGIC || ints.get(1) != VERSION) {
+                LOG.warn("Ignoring {}: not a version {} OWL semantic index", file, VERSION);
+                return Optional.empty();
+            }
+            int conceptCount = ints.get(2);
+            int semanticCount = ints.get(3);
+            long expectedBytes = (HEADER_INTS + 2L * conceptCount + 1 + semanticCount) * Integer.BYTES;
+            if (conceptCount < 0 || semanticCount < 0 || expectedBytes != channel.size()) {
+                LOG.warn("Ignoring {}: its header describes {} concepts and {} semantics in {} bytes, the file has {}",
+                        file, conceptCount, semanticCount, expectedBytes, channel.size());
+                return Optional.empty();
+            }
+            int offsetsStart = HEADER_INTS + conceptCount;
+            int semanticsStart = offsetsStart + conceptCount + 1;
+            return Optional.of(new OwlSemanticIndex(
+                    ints.slice(HEADER_INTS, conceptCount),
+                    ints.slice(offsetsStart, conceptCount + 1),
+                    ints.slice(semanticsStart, semanticCount)));
+        }
+    }
+
+    /**
+     * Writes the index to {@value #FILE_NAME} in the directory, replacing any previous one.
+     */
+    void save(Path directory) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        int ints = HEADER_INTS + conceptNids.limit() + offsets.limit() + semanticNids.limit();
+        ByteBuffer bytes = ByteBuffer.allocate(ints * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        IntBuffer out = bytes.asIntBuffer();
+        out.put(MAGIC).put(VERSION).put(conceptNids.limit()).put(semanticNids.limit());
+        out.put(conceptNids.duplicate().rewind()).put(offsets.duplicate().rewind()).put(semanticNids.duplicate().rewind());
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the number of concepts with at least one OWL semantic
+     */
+    int conceptCount() {
+        return conceptNids.limit();
+    }
+
+    int semanticCount() {
+        return semanticNids.limit();
+    }
+
+    /**
+     * @param index position in ascending nid order, from zero to {@link #conceptCount()}
+     */
+    int conceptNid(int index) {
+        return conceptNids.get(index);
+    }
+
+    /**
+     * @param index position in ascending nid order, from zero to {@link #conceptCount()}
+     */
+    int semanticCountAt(int index) {
+        return offsets.get(index + 1) - offsets.get(index);
+    }
+
+    ImmutableIntList conceptNids() {
+        int[] nids = new int[conceptNids.limit()];
+        conceptNids.get(0, nids);
+        return IntLists.immutable.of(nids);
+    }
+
+    void forEachSemanticAt(int index, IntConsumer semanticNidConsumer) {
+        for (int i = offsets.get(index); i < offsets.get(index + 1); i++) {
+            semanticNidConsumer.accept(semanticNids.get(i));
+        }
+    }
+
+    /**
+     * Visits the OWL semantics of a concept; a concept without any is not visited.
+     */
+    void forEachSemantic(int conceptNid, IntConsumer semanticNidConsumer) {
+        int index = indexOf(conceptNid);
+        if (index >= 0) {
+            forEachSemanticAt(index, semanticNidConsumer);
+        }
+    }
+
+    private int indexOf(int conceptNid) {
+        int low = 0;
+        int high = conceptNids.limit() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int nid = conceptNids.get(middle);
+            if (nid < conceptNid) {
+                low = middle + 1;
+            } else if (nid > conceptNid) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Collects (concept, semantic) pairs as rows are written. Adding is thread safe; duplicates, such as one semantic
+     * seen in several rows of a Full file, are removed by {@link #build()}.
+     */
+    static final class Builder {
+        private long[] pairs = new long[1 << 16];
+        private int size;
+
+        synchronized void add(int conceptNid, int semanticNid) {
+            if (size == pairs.length) {
+                pairs = Arrays.copyOf(pairs, size * 2);
+            }
+            pairs[size++] = (long) conceptNid << 32 | (semanticNid & 0xFFFFFFFFL);
+        }
+
+        /**
+         * Adds every pair of an existing index, so an incremental import can extend it.
+         */
+        synchronized void addAll(OwlSemanticIndex index) {
+            for (int i = 0; i < index.conceptCount(); i++) {
+                int conceptNid = index.conceptNid(i);
+                index.forEachSemanticAt(i, semanticNid -> add(conceptNid, semanticNid));
+            }
+        }
+
+        synchronized OwlSemanticIndex build() {
+            long[] sorted = Arrays.copyOf(pairs, size);
+            Arrays.parallelSort(sorted);
+            int[] concepts = new int[size];
+            int[] offsets = new int[size + 1];
+            int[] semantics = new int[size];
+            int conceptCount = 0;
+            int semanticCount = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i > 0 && sorted[i] == sorted[i - 1]) {
+                    continue;
+                }
+                int conceptNid = (int) (sorted[i] >> 32);
+                if (conceptCount == 0 || concepts[conceptCount - 1] != conceptNid) {
+                    offsets[conceptCount] = semanticCount;
+                    concepts[conceptCount++] = conceptNid;
+                }
+                semantics[semanticCount++] = (int) sorted[i];
+            }
+            offsets[conceptCount] = semanticCount;
+            return new OwlSemanticIndex(IntBuffer.wrap(concepts, 0, conceptCount).slice(),
+                    IntBuffer.wrap(offsets, 0, conceptCount + 1).slice(),
+                    IntBuffer.wrap(semantics, 0, semanticCount).slice());
+        }
+    }
+}
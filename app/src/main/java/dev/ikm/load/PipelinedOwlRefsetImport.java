@@ -0,0 +1,257 @@
+package dev.ikm.load;
+
+import dev.ikm.tinkar.entity.Entity;
+import dev.ikm.tinkar.entity.SemanticRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports the OWL expression refset with one reader stage, a pool of parse/build workers, and one batched writer stage.
+ * <p>
+ * The reader reads rows into {@link OwlRefsetBatch}es for the workers, the workers turn each batch into
+ * {@link SemanticRecord}s, and the writer stores each finished batch with {@link Entity#provider()}. Both hand-offs go
+ * through bounded queues so a slow writer throttles the reader instead of letting parsed records pile up on the heap.
+ * The reader never splits the consecutive rows of one refset member across batches, and each member is converted by
+ * the same {@link OwlRefsetSemanticBuilder} the serial import uses, so the database content does not depend on which
+ * path was taken. The writer also records each semantic in an {@link OwlSemanticIndex}.
+ * <p>
+ * When a {@link ChunkedCommits} chunk is due at the start of a member, the reader hands over what it has read, waits
+ * for the writer to store it, and commits before reading on. The rows between the reader and the end of a worker's
+ * build count against an {@link InFlightRows} limit, which a release import shares with any files it loads alongside.
+ */
+class PipelinedOwlRefsetImport {
+    private static final Logger LOG = LoggerFactory.getLogger(PipelinedOwlRefsetImport.class);
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final OwlRefsetBatch END_OF_ROWS = new OwlRefsetBatch(0);
+    private static final List<SemanticRecord> END_OF_RECORDS = List.of();
+
+    private final OwlRefsetSemanticBuilder semanticBuilder;
+    private final OwlSemanticIndex.Builder indexBuilder;
+    private final ChunkedCommits commits;
+    private final InFlightRows inFlight;
+    private final int parallelism;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final ImportMetrics metrics = ImportMetrics.global();
+    private final BlockingQueue<OwlRefsetBatch> rowBatches;
+    private final BlockingQueue<List<SemanticRecord>> recordBatches;
+    private final AtomicInteger recordCount = new AtomicInteger();
+    private final Object writtenLock = new Object();
+    private long batchesHandedOver;
+    private long batchesWritten;
+    private volatile Throwable failure;
+
+    PipelinedOwlRefsetImport(OwlRefsetSemanticBuilder semanticBuilder, int parallelism, int batchSize, int queueCapacity,
+                             OwlSemanticIndex.Builder indexBuilder, ChunkedCommits commits, InFlightRows inFlight) {
+        if (parallelism < 1 || batchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("parallelism, batchSize and queueCapacity must be positive: "
+                    + parallelism + ", " + batchSize + ", " + queueCapacity);
+        }
+        this.semanticBuilder = semanticBuilder;
+        this.indexBuilder = indexBuilder;
+        this.commits = commits;
+        this.inFlight = inFlight;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.rowBatches = new ArrayBlockingQueue<>(queueCapacity);
+        this.recordBatches = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Imports every remaining row that the filter accepts.
+     *
+     * @return the number of semantic records written
+     */
+    int importRows(OwlRefsetRows rows, EffectiveTimeFilter filter, RefsetMemberGrouping grouping) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism + 1, runnable -> {
+            Thread thread = new Thread(runnable, "owl-import-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> stages = new ArrayList<>(parallelism + 1);
+            stages.add(executor.submit(this::writeRecords));
+            for (int i = 0; i < parallelism; i++) {
+                stages.add(executor.submit(this::buildRecords));
+            }
+            try {
+                readRows(rows, filter, grouping);
+            } finally {
+                for (int i = 0; i < parallelism; i++) {
+                    transfer(rowBatches, END_OF_ROWS, true);
+                }
+            }
+            for (Future<?> stage : stages) {
+                stage.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            fail(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure != null) {
+            throw new RuntimeException("Pipelined OWL refset import failed", failure);
+        }
+        return recordCount.get();
+    }
+
+    private void readRows(OwlRefsetRows rows, EffectiveTimeFilter filter, RefsetMemberGrouping grouping)
+            throws IOException, InterruptedException {
+        OwlRefsetBatch batch = new OwlRefsetBatch(batchSize);
+        ImportMetrics.ReaderTimer timer = metrics.readerTimer(rows);
+        while (failure == null && rows.nextRow()) {
+            if (!filter.accept(rows)) {
+                continue;
+            }
+            if (grouping.startsNewMember(rows)) {
+                if (commits.due(grouping.rows() - 1)) {
+                    timer.lap(batch.size());
+                    if (!batch.isEmpty()) {
+                        handOver(batch);
+                    }
+                    if (!awaitWritten()) {
+                        return;
+                    }
+                    commits.commit(rows.rowOffset(), grouping.previousMember(), grouping.rows() - 1,
+                            recordCount.get());
+                    timer.restart();
+                    batch = new OwlRefsetBatch(batchSize);
+                } else if (batch.isFull()) {
+                    timer.lap(batch.size());
+                    handOver(batch);
+                    timer.restart();
+                    batch = new OwlRefsetBatch(batchSize);
+                }
+            }
+            batch.add(rows);
+        }
+        timer.lap(batch.size());
+        if (!batch.isEmpty()) {
+            handOver(batch);
+        }
+    }
+
+    private void handOver(OwlRefsetBatch batch) throws InterruptedException {
+        metrics.recordQueueDepth("rowBatches", rowBatches.size(), queueCapacity);
+        metrics.recordQueueDepth("recordBatches", recordBatches.size(), queueCapacity);
+        inFlight.acquire(batch.size());
+        batchesHandedOver++;
+        if (!transfer(rowBatches, batch, false)) {
+            inFlight.release(batch.size());
+        }
+    }
+
+    /**
+     * Waits until the writer has finished every batch handed over so far.
+     *
+     * @return false when a stage failed, leaving some batches unwritten
+     */
+    private boolean awaitWritten() throws InterruptedException {
+        synchronized (writtenLock) {
+            while (batchesWritten < batchesHandedOver && failure == null) {
+                writtenLock.wait(100);
+            }
+        }
+        return failure == null;
+    }
+
+    private Void buildRecords() throws InterruptedException {
+        try {
+            for (OwlRefsetBatch rows = rowBatches.take(); rows != END_OF_ROWS; rows = rowBatches.take()) {
+                if (failure != null) {
+                    inFlight.release(rows.size());
+                    continue; // keep draining so the reader is never left blocked on a full queue
+                }
+                try {
+                    long allocated = ImportMetrics.currentThreadAllocatedBytes();
+                    List<SemanticRecord> records = new ArrayList<>(rows.size());
+                    for (int from = 0, to; from < rows.size(); from = to) {
+                        to = rows.memberEnd(from);
+                        records.add(semanticBuilder.build(rows, from, to));
+                    }
+                    metrics.record(ImportMetrics.Phase.BUILD, 0, 0, ImportMetrics.allocatedSince(allocated));
+                    transfer(recordBatches, records, false);
+                } catch (RuntimeException e) {
+                    fail(e);
+                } finally {
+                    inFlight.release(rows.size());
+                }
+            }
+        } finally {
+            transfer(recordBatches, END_OF_RECORDS, true);
+        }
+        return null;
+    }
+
+    private Void writeRecords() throws InterruptedException {
+        int finishedWorkers = 0;
+        while (finishedWorkers < parallelism) {
+            List<SemanticRecord> records = recordBatches.take();
+            if (records == END_OF_RECORDS) {
+                finishedWorkers++;
+            } else if (failure == null) {
+                try {
+                    long allocated = ImportMetrics.currentThreadAllocatedBytes();
+                    long putNanos = 0;
+                    for (SemanticRecord semanticRecord : records) {
+                        putNanos += ImportAndTransform.putEntity(semanticRecord);
+                        indexBuilder.add(semanticRecord.referencedComponentNid(), semanticRecord.nid());
+                        if (recordCount.getAndIncrement() < 25) {
+                            LOG.info( "Created semantic record: {}", semanticRecord );
+                        }
+                    }
+                    metrics.record(ImportMetrics.Phase.PUT_ENTITY, putNanos, records.size(),
+                            ImportMetrics.allocatedSince(allocated));
+                } catch (RuntimeException e) {
+                    fail(e);
+                }
+            }
+            if (records != END_OF_RECORDS) {
+                synchronized (writtenLock) {
+                    batchesWritten++;
+                    writtenLock.notifyAll();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Puts an item on a bounded queue, giving up once another stage has failed unless the item is an end marker,
+     * which must always arrive so the downstream stage can finish.
+     *
+     * @return false when the item was dropped
+     */
+    private <T> boolean transfer(BlockingQueue<T> queue, T item, boolean endMarker) throws InterruptedException {
+        while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+            if (failure != null && !endMarker) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void fail(Throwable throwable) {
+        if (failure == null) {
+            failure = throwable;
+        }
+        LOG.error("OWL refset import stage failed", throwable);
+    }
+}
@@ -0,0 +1,24 @@
+package dev.ikm.load;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A write of one semantic to the entity provider that took longer than the threshold.
+ */
+@Name("dev.ikm.load.PutEntity")
+@Label("Put Entity")
+@Category({"Tinkar", "OWL Import"})
+@Description("A slow Entity.provider().putEntity call")
+@Threshold("10 ms")
+class PutEntityEvent extends Event {
+    @Label("Nid")
+    int nid;
+
+    @Label("Versions")
+    int versions;
+}
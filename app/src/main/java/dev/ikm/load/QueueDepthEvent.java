@@ -0,0 +1,27 @@
+package dev.ikm.load;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The depth of a pipelined import queue, sampled each time the reader hands over a batch.
+ */
+@Name("dev.ikm.load.QueueDepth")
+@Label("Import Queue Depth")
+@Category({"Tinkar", "OWL Import"})
+@Description("Batches waiting in a pipelined import queue")
+@StackTrace(false)
+class QueueDepthEvent extends Event {
+    @Label("Queue")
+    String queue;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Capacity")
+    int capacity;
+}
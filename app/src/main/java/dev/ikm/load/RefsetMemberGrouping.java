@@ -0,0 +1,89 @@
+package dev.ikm.load;
+
+import java.util.UUID;
+
+/**
+ * Tracks refset member ids as the reader goes through the rows, so consecutive versions of one member can be grouped
+ * into a single semantic.
+ * <p>
+ * RF2 Full files list the versions of a member together, but nothing in the format requires it. Member groups that
+ * start with an id lower than the group before are counted: they show the file is not sorted by member id, so a
+ * member may also be listed elsewhere in it, and each of its groups is then written as a separate semantic and merged
+ * by the entity provider. Whether any member actually is listed twice is not tracked;
+ * {@value ImportAndTransform#SORT_PROPERTY} sorts the file by member first. Used by the single reader thread of
+ * either import path, so it is not thread safe.
+ */
+final class RefsetMemberGrouping {
+    private boolean started;
+    private long lastMostSignificantBits;
+    private long lastLeastSignificantBits;
+    private long previousMostSignificantBits;
+    private long previousLeastSignificantBits;
+    private long rows;
+    private long members;
+    private long outOfOrder;
+
+    /**
+     * @return true when the current row is for a different member than the previous row
+     */
+    boolean startsNewMember(OwlRefsetRows refsetRows) {
+        long msb = refsetRows.idMostSignificantBits();
+        long lsb = refsetRows.idLeastSignificantBits();
+        rows++;
+        if (started && msb == lastMostSignificantBits && lsb == lastLeastSignificantBits) {
+            return false;
+        }
+        if (started && compare(msb, lsb, lastMostSignificantBits, lastLeastSignificantBits) < 0) {
+            outOfOrder++;
+        }
+        previousMostSignificantBits = lastMostSignificantBits;
+        previousLeastSignificantBits = lastLeastSignificantBits;
+        started = true;
+        lastMostSignificantBits = msb;
+        lastLeastSignificantBits = lsb;
+        members++;
+        return true;
+    }
+
+    /**
+     * @return the member of the most recent row, or null before the first row
+     */
+    UUID lastMember() {
+        return members == 0 ? null : new UUID(lastMostSignificantBits, lastLeastSignificantBits);
+    }
+
+    /**
+     * @return the member whose rows ended where the current member's began, or null while the first member is read
+     */
+    UUID previousMember() {
+        return members < 2 ? null : new UUID(previousMostSignificantBits, previousLeastSignificantBits);
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    long members() {
+        return members;
+    }
+
+    /**
+     * @return the number of member groups whose id is lower than the one before, zero for a file sorted by id
+     */
+    long outOfOrder() {
+        return outOfOrder;
+    }
+
+    /**
+     * Orders member ids the way their lower case text sorts, which is the order of RF2 files sorted by id.
+     */
+    static int compare(long msb, long lsb, long otherMsb, long otherLsb) {
+        int order = Long.compareUnsigned(msb, otherMsb);
+        return order != 0 ? order : Long.compareUnsigned(lsb, otherLsb);
+    }
+
+    @Override
+    public String toString() {
+        return rows + " rows, " + members + " member groups, " + outOfOrder + " with a lower id than the group before";
+    }
+}
@@ -0,0 +1,212 @@
+package dev.ikm.load;
+
+import dev.ikm.load.ImportAndTransform.Fields;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts RF2 refset lines by member id and then effective time, spilling sorted runs to disk so files larger than the
+ * heap can be sorted.
+ * <p>
+ * Lines are copied into an in-memory run until it holds {@code runBytes}, and each full run is sorted and written to a
+ * file in the work directory. The runs are then merged into one file that {@link Rf2Tokenizer#mapped(Path)} can read.
+ * Lines with equal keys keep their input order.
+ */
+final class Rf2ExternalSort {
+    private static final Logger LOG = LoggerFactory.getLogger(Rf2ExternalSort.class);
+
+    static final long DEFAULT_RUN_BYTES = 256L << 20;
+
+    private static final int RUN_BUFFER_SIZE = 1 << 16;
+
+    private Rf2ExternalSort() {
+    }
+
+    /**
+     * Reads the remaining lines of the tokenizer and writes them, sorted, to a new file in the work directory.
+     *
+     * @return the sorted file, without a header line
+     */
+    static Path sortByMember(Rf2Tokenizer tokenizer, Path directory, long runBytes) throws IOException {
+        long start = System.nanoTime();
+        List<Path> runs = new ArrayList<>();
+        Run run = new Run((int) Math.min(runBytes, Integer.MAX_VALUE - 8));
+        while (tokenizer.nextLine()) {
+            if (!run.fits(tokenizer.lineLength())) {
+                runs.add(run.write(directory.resolve("run-" + runs.size() + ".txt")));
+                run.clear();
+            }
+            run.add(tokenizer);
+        }
+        runs.add(run.write(directory.resolve("run-" + runs.size() + ".txt")));
+        Path sorted = directory.resolve("sorted.txt");
+        if (runs.size() == 1) {
+            Files.move(runs.get(0), sorted, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            merge(runs, sorted);
+        }
+        LOG.info("Sorted refset lines by member in {} runs in {} ms", runs.size(), (System.nanoTime() - start) / 1_000_000);
+        return sorted;
+    }
+
+    private static void merge(List<Path> runs, Path sorted) throws IOException {
+        PriorityQueue<RunReader> readers = new PriorityQueue<>();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(sorted), RUN_BUFFER_SIZE)) {
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader reader = new RunReader(Rf2Tokenizer.mapped(runs.get(i)), i);
+                if (reader.advance()) {
+                    readers.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            byte[] line = new byte[1024];
+            while (!readers.isEmpty()) {
+                RunReader reader = readers.poll();
+                int length = reader.tokenizer.lineLength();
+                if (line.length < length) {
+                    line = new byte[Math.max(length, line.length * 2)];
+                }
+                reader.tokenizer.copyLine(line, 0);
+                out.write(line, 0, length);
+                out.write('\n');
+                if (reader.advance()) {
+                    readers.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+    }
+
+    private static int compare(long msb, long lsb, long time, long otherMsb, long otherLsb, long otherTime) {
+        int order = RefsetMemberGrouping.compare(msb, lsb, otherMsb, otherLsb);
+        return order != 0 ? order : Long.compare(time, otherTime);
+    }
+
+    /**
+     * Lines held in one byte array, with their sort keys in parallel arrays.
+     */
+    private static final class Run {
+        private final byte[] bytes;
+        private int used;
+        private int count;
+        private int[] offsets = new int[1 << 16];
+        private long[] mostSignificantBits = new long[1 << 16];
+        private long[] leastSignificantBits = new long[1 << 16];
+        private long[] effectiveTimes = new long[1 << 16];
+
+        Run(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        boolean fits(int lineLength) {
+            return count == 0 || used + lineLength <= bytes.length;
+        }
+
+        void add(Rf2Tokenizer tokenizer) {
+            int length = tokenizer.lineLength();
+            if (length > bytes.length - used) {
+                throw new IllegalStateException("Line of " + length + " bytes does not fit in a sort run of "
+                        + bytes.length + " bytes");
+            }
+            if (count + 1 == offsets.length) {
+                int capacity = offsets.length * 2;
+                offsets = Arrays.copyOf(offsets, capacity);
+                mostSignificantBits = Arrays.copyOf(mostSignificantBits, capacity);
+                leastSignificantBits = Arrays.copyOf(leastSignificantBits, capacity);
+                effectiveTimes = Arrays.copyOf(effectiveTimes, capacity);
+            }
+            offsets[count] = used;
+            mostSignificantBits[count] = tokenizer.uuidMostSignificantBits(Fields.ID.ordinal());
+            leastSignificantBits[count] = tokenizer.uuidLeastSignificantBits(Fields.ID.ordinal());
+            effectiveTimes[count] = tokenizer.dateFieldEpochMillis(Fields.EFFECTIVE_TIME.ordinal());
+            tokenizer.copyLine(bytes, used);
+            used += length;
+            count++;
+            offsets[count] = used;
+        }
+
+        Path write(Path file) throws IOException {
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> compare(mostSignificantBits[a], leastSignificantBits[a], effectiveTimes[a],
+                    mostSignificantBits[b], leastSignificantBits[b], effectiveTimes[b]));
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), RUN_BUFFER_SIZE)) {
+                for (int line : order) {
+                    out.write(bytes, offsets[line], offsets[line + 1] - offsets[line]);
+                    out.write('\n');
+                }
+            }
+            return file;
+        }
+
+        void clear() {
+            used = 0;
+            count = 0;
+        }
+    }
+
+    /**
+     * The current line of one sorted run during the merge; ties go to the earlier run.
+     */
+    private static final class RunReader implements Comparable<RunReader> {
+        private final Rf2Tokenizer tokenizer;
+        private final int runIndex;
+        private long mostSignificantBits;
+        private long leastSignificantBits;
+        private long effectiveTime;
+
+        RunReader(Rf2Tokenizer tokenizer, int runIndex) {
+            this.tokenizer = tokenizer;
+            this.runIndex = runIndex;
+        }
+
+        boolean advance() throws IOException {
+            if (!tokenizer.nextLine()) {
+                return false;
+            }
+            mostSignificantBits = tokenizer.uuidMostSignificantBits(Fields.ID.ordinal());
+            leastSignificantBits = tokenizer.uuidLeastSignificantBits(Fields.ID.ordinal());
+            effectiveTime = tokenizer.dateFieldEpochMillis(Fields.EFFECTIVE_TIME.ordinal());
+            return true;
+        }
+
+        @Override
+        public int compareTo(RunReader other) {
+            int order = compare(mostSignificantBits, leastSignificantBits, effectiveTime,
+                    other.mostSignificantBits, other.leastSignificantBits, other.effectiveTime);
+            return order != 0 ? order : Integer.compare(runIndex, other.runIndex);
+        }
+
+        void close() throws IOException {
+            try {
+                tokenizer.close();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
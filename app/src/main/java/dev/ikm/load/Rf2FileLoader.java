@@ -0,0 +1,14 @@
+package dev.ikm.load;
+
+/**
+ * Loads one RF2 file of a release. Called on a thread of the release import's shared executor, concurrently with the
+ * loaders of other files that do not depend on the same components.
+ */
+@FunctionalInterface
+interface Rf2FileLoader {
+    /**
+     * @param inFlight the limit, shared with every other file being loaded, on rows read but not yet written
+     * @return the number of rows loaded
+     */
+    long load(Rf2ReleaseFile file, InFlightRows inFlight) throws Exception;
+}
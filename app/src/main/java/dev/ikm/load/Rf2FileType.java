@@ -0,0 +1,62 @@
+package dev.ikm.load;
+
+import java.util.List;
+
+/**
+ * The kinds of RF2 file in a release package, each with the kinds whose components its rows refer to and which must
+ * therefore be loaded first.
+ * <p>
+ * Constants are declared in dependency order: a type only depends on types declared before it, so visiting the
+ * constants in order visits every file after the files it depends on.
+ */
+enum Rf2FileType {
+    CONCEPT(false),
+    IDENTIFIER(false, CONCEPT),
+    DESCRIPTION(false, CONCEPT),
+    RELATIONSHIP(false, CONCEPT),
+    OWL_EXPRESSION_REFSET(true, CONCEPT),
+    LANGUAGE_REFSET(true, DESCRIPTION),
+    REFSET(true, CONCEPT, DESCRIPTION);
+
+    private final boolean uuidIdentified;
+    private final List<Rf2FileType> dependsOn;
+
+    Rf2FileType(boolean uuidIdentified, Rf2FileType... dependsOn) {
+        this.uuidIdentified = uuidIdentified;
+        this.dependsOn = List.of(dependsOn);
+    }
+
+    /**
+     * @return true when rows are identified by a UUID, as refset members are, rather than by an SCTID
+     */
+    boolean uuidIdentified() {
+        return uuidIdentified;
+    }
+
+    List<Rf2FileType> dependsOn() {
+        return dependsOn;
+    }
+
+    /**
+     * Classifies a file by the content type and sub type parts of its RF2 name, such as {@code Description} and
+     * {@code Full-en} in {@code sct2_Description_Full-en_INT_20241001.txt}.
+     *
+     * @return the type, or null for a file that is not RF2 content
+     */
+    static Rf2FileType of(String fileType, String contentType, String contentSubType) {
+        if (fileType.equals("sct2")) {
+            return switch (contentType) {
+                case "Concept" -> CONCEPT;
+                case "Identifier" -> IDENTIFIER;
+                case "Description", "TextDefinition" -> DESCRIPTION;
+                case "Relationship", "StatedRelationship", "RelationshipConcreteValues" -> RELATIONSHIP;
+                default -> contentType.endsWith("Refset") && contentSubType.startsWith("OWL") ? OWL_EXPRESSION_REFSET
+                        : contentType.endsWith("Refset") ? REFSET : null;
+            };
+        }
+        if (fileType.equals("der2") && contentType.endsWith("Refset")) {
+            return contentSubType.startsWith("Language") ? LANGUAGE_REFSET : REFSET;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,81 @@
+package dev.ikm.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * The RF2 files of a release package, found by walking the entries of its zip and of any zip nested in it, such as
+ * the RF2 package inside an edition bundle.
+ * <p>
+ * Every file is read through a {@link ContentProvider}. A nested archive is listed by streaming through it once,
+ * without writing it anywhere; it is only inflated to a {@link NestedZipArchive} when one of its files is first read,
+ * so the archives holding nothing the import reads are never inflated.
+ */
+final class Rf2Release {
+    private static final Logger LOG = LoggerFactory.getLogger(Rf2Release.class);
+
+    private final List<Rf2ReleaseFile> files;
+
+    private Rf2Release(List<Rf2ReleaseFile> files) {
+        this.files = files;
+    }
+
+    static Rf2Release open(File zipFile) throws IOException {
+        List<Rf2ReleaseFile> files = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(zipFile, StandardCharsets.UTF_8)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (entry.getName().endsWith(".zip")) {
+                    for (ZipEntry innerEntry : innerEntries(zip, entry)) {
+                        Rf2ReleaseFile.of(innerEntry, new ContentProvider(zipFile, entry, innerEntry.getName()))
+                                .ifPresent(files::add);
+                    }
+                } else {
+                    Rf2ReleaseFile.of(entry, new ContentProvider(zipFile, entry)).ifPresent(files::add);
+                }
+            }
+        }
+        LOG.info("Found {} RF2 files in {}", files.size(), zipFile.getName());
+        return new Rf2Release(List.copyOf(files));
+    }
+
+    /**
+     * Lists the entries of a nested archive from their local headers. Each entry is read through before the next
+     * one is taken, so an entry whose size and CRC follow its data still has them.
+     */
+    private static List<ZipEntry> innerEntries(ZipFile zip, ZipEntry nestedZipEntry) throws IOException {
+        List<ZipEntry> innerEntries = new ArrayList<>();
+        try (InputStream nested = zip.getInputStream(nestedZipEntry);
+             ZipInputStream entries = new ZipInputStream(nested, StandardCharsets.UTF_8)) {
+            for (ZipEntry innerEntry = entries.getNextEntry(); innerEntry != null; innerEntry = entries.getNextEntry()) {
+                entries.closeEntry();
+                if (!innerEntry.isDirectory()) {
+                    innerEntries.add(innerEntry);
+                }
+            }
+        }
+        return innerEntries;
+    }
+
+    /**
+     * @param releaseType {@code Full}, {@code Snapshot} or {@code Delta}
+     */
+    List<Rf2ReleaseFile> files(String releaseType) {
+        return files.stream().filter(file -> file.releaseType().equals(releaseType)).toList();
+    }
+}
@@ -0,0 +1,56 @@
+package dev.ikm.load;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+
+/**
+ * One RF2 file of a release package.
+ *
+ * @param entry       the entry within the archive that holds it, with its name, including its folders, and the size
+ *                    and CRC recorded there
+ * @param type        what the rows of the file describe
+ * @param releaseType {@code Full}, {@code Snapshot} or {@code Delta}
+ * @param content     the content of the entry
+ */
+record Rf2ReleaseFile(ZipEntry entry, Rf2FileType type, String releaseType, ContentProvider content) {
+    /**
+     * {@code <file type>_<content type>_<content sub type>_<country and namespace>_<version date>.txt}, where the
+     * content sub type ends with the release type and an optional language code.
+     */
+    private static final Pattern FILE_NAME =
+            Pattern.compile("(sct2|der2)_([A-Za-z]+)_([A-Za-z0-9]*?)(Full|Snapshot|Delta)(-[A-Za-z-]+)?_[^_]+_[^_]+\\.txt");
+
+    /**
+     * @return the file for an archive entry, or empty when the entry is not an RF2 file
+     */
+    static Optional<Rf2ReleaseFile> of(ZipEntry entry, ContentProvider content) {
+        Matcher matcher = FILE_NAME.matcher(entry.getName().substring(entry.getName().lastIndexOf('/') + 1));
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        Rf2FileType type = Rf2FileType.of(matcher.group(1), matcher.group(2), matcher.group(3));
+        return type == null ? Optional.empty() : Optional.of(new Rf2ReleaseFile(entry, type, matcher.group(4), content));
+    }
+
+    /**
+     * @return the name of the entry, including its folders, within the archive that holds it
+     */
+    String entryName() {
+        return entry.getName();
+    }
+
+    /**
+     * @return the name of the file without its folders
+     */
+    String fileName() {
+        String entryName = entry.getName();
+        return entryName.substring(entryName.lastIndexOf('/') + 1);
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + fileName();
+    }
+}
@@ -0,0 +1,163 @@
+package dev.ikm.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Loads the RF2 files of a release concurrently, each file only once the files it depends on have been loaded.
+ * <p>
+ * Each file is loaded by the first loader registered for it; files no loader accepts are not read at all. Every
+ * loaded file becomes a task on one shared executor that starts when the tasks for all loaded files of the types its
+ * {@link Rf2FileType#dependsOn() type depends on} have finished, so concepts are loaded before the descriptions,
+ * relationships and refsets that point at them, and files that do not depend on each other load at the same time.
+ * A type none of whose files are loaded holds nothing up. All loaders share one {@link InFlightRows} limit. A file
+ * whose dependency failed is not loaded, and the first failure is thrown once every other task has finished.
+ */
+final class Rf2ReleaseImport {
+    private static final Logger LOG = LoggerFactory.getLogger(Rf2ReleaseImport.class);
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private record Registration(Predicate<Rf2ReleaseFile> files, Rf2FileLoader loader) {}
+
+    /**
+     * How long a file took to load; the times of files loaded concurrently overlap.
+     */
+    record FileResult(Rf2ReleaseFile file, long rows, long nanos) {}
+
+    private final List<Rf2ReleaseFile> files;
+    private final int parallelism;
+    private final InFlightRows inFlight;
+    private final List<Registration> registrations = new ArrayList<>();
+
+    Rf2ReleaseImport(List<Rf2ReleaseFile> files, int parallelism, InFlightRows inFlight) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.files = files;
+        this.parallelism = parallelism;
+        this.inFlight = inFlight;
+    }
+
+    /**
+     * Loads the files {@code filter} accepts, and no earlier registration does, with {@code loader}.
+     */
+    Rf2ReleaseImport loader(Predicate<Rf2ReleaseFile> filter, Rf2FileLoader loader) {
+        registrations.add(new Registration(filter, loader));
+        return this;
+    }
+
+    /**
+     * Loads every file a loader is registered for and waits for them all.
+     *
+     * @return the result of each loaded file, in the order the files were scheduled
+     */
+    List<FileResult> run() {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "rf2-import-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<Rf2ReleaseFile, CompletableFuture<FileResult>> tasks = new LinkedHashMap<>();
+        int skipped = 0;
+        try {
+            for (Rf2FileType type : Rf2FileType.values()) {
+                for (Rf2ReleaseFile file : files) {
+                    if (file.type() != type) {
+                        continue;
+                    }
+                    Optional<Rf2FileLoader> loader = loader(file);
+                    if (loader.isEmpty()) {
+                        skipped++;
+                        continue;
+                    }
+                    CompletableFuture<?>[] dependencies = tasks.entrySet().stream()
+                            .filter(task -> type.dependsOn().contains(task.getKey().type()))
+                            .map(Map.Entry::getValue)
+                            .toArray(CompletableFuture<?>[]::new);
+                    tasks.put(file, CompletableFuture.allOf(dependencies)
+                            .thenApplyAsync(ignored -> load(file, loader.get()), executor));
+                }
+            }
+            LOG.info("Loading {} of {} RF2 files; no loader reads the other {}", tasks.size(), files.size(), skipped);
+            CompletableFuture.allOf(tasks.values().toArray(CompletableFuture<?>[]::new))
+                    .exceptionally(throwable -> null)
+                    .join();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<FileResult> results = new ArrayList<>(tasks.size());
+        RuntimeException failure = null;
+        for (Map.Entry<Rf2ReleaseFile, CompletableFuture<FileResult>> task : tasks.entrySet()) {
+            try {
+                results.add(task.getValue().join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = new RuntimeException("Release import failed", e.getCause());
+                } else if (e.getCause() != failure.getCause()) {
+                    failure.addSuppressed(e.getCause());
+                }
+                LOG.error("Not loaded: {}", task.getKey());
+            }
+        }
+        logSummary(results, System.nanoTime() - start);
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    private Optional<Rf2FileLoader> loader(Rf2ReleaseFile file) {
+        return registrations.stream()
+                .filter(registration -> registration.files().test(file))
+                .map(Registration::loader)
+                .findFirst();
+    }
+
+    private FileResult load(Rf2ReleaseFile file, Rf2FileLoader loader) {
+        LOG.info("Loading {}", file);
+        long start = System.nanoTime();
+        try {
+            long rows = loader.load(file, inFlight);
+            long nanos = System.nanoTime() - start;
+            LOG.info("Loaded {} rows of {} in {} ms", rows, file, TimeUnit.NANOSECONDS.toMillis(nanos));
+            return new FileResult(file, rows, nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted loading " + file.entryName(), e);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load " + file.entryName(), e);
+        }
+    }
+
+    /**
+     * Compares the elapsed time with the slowest file and with the sum of every file's time, which is what loading
+     * the files one after another would have taken.
+     */
+    private static void logSummary(List<FileResult> results, long elapsedNanos) {
+        long rows = results.stream().mapToLong(FileResult::rows).sum();
+        long sumNanos = results.stream().mapToLong(FileResult::nanos).sum();
+        FileResult slowest = results.stream().max(Comparator.comparingLong(FileResult::nanos)).orElse(null);
+        LOG.info("Loaded {} rows from {} RF2 files in {} ms; one after another they took {} ms", rows, results.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), TimeUnit.NANOSECONDS.toMillis(sumNanos));
+        if (slowest != null) {
+            LOG.info("Slowest file: {} in {} ms", slowest.file(), TimeUnit.NANOSECONDS.toMillis(slowest.nanos()));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package dev.ikm.load;
+
+/**
+ * Turns the current line of an {@link Rf2Tokenizer} into a row object.
+ *
+ * @param <R> the row type
+ */
+@FunctionalInterface
+public interface Rf2RowReader<R> {
+    R read(Rf2Tokenizer tokenizer);
+
+    /**
+     * Reads every field of a line as a String.
+     */
+    static Rf2RowReader<String[]> fields() {
+        return tokenizer -> {
+            String[] fields = new String[tokenizer.fieldCount()];
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = tokenizer.stringField(i);
+            }
+            return fields;
+        };
+    }
+}
@@ -0,0 +1,370 @@
+package dev.ikm.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Splits RF2 content into lines and tab separated fields directly on the bytes, without a String per line or field.
+ * <p>
+ * Plain files are memory mapped and scanned in place. Other sources, such as zip entries, are read through one
+ * reusable direct buffer that only grows when a single line does not fit. After {@link #nextLine()} returns
+ * {@code true} the fields of the current line are read with the typed accessors; only {@link #stringField(int)}
+ * allocates.
+ */
+public class Rf2Tokenizer implements AutoCloseable {
+    static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final ReadableByteChannel channel;
+    private final AutoCloseable owner;
+    private ByteBuffer buffer;
+    private boolean endOfInput;
+    /** Absolute offset in the source of {@code buffer} position zero. */
+    private long bufferOffset;
+    private int lineStart;
+    private int lineEnd;
+    private int nextLineStart;
+    private int fieldCount;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private byte[] scratch = new byte[256];
+    private long readNanos;
+
+    private Rf2Tokenizer(ByteBuffer buffer, ReadableByteChannel channel, AutoCloseable owner) {
+        this.buffer = buffer;
+        this.channel = channel;
+        this.owner = owner;
+        this.endOfInput = channel == null;
+    }
+
+    /**
+     * Maps the whole file, falling back to buffered reading for files too large for one mapping.
+     */
+    public static Rf2Tokenizer mapped(Path path) throws IOException {
+        FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (fileChannel.size() > Integer.MAX_VALUE) {
+                return streaming(fileChannel, null, DEFAULT_BUFFER_SIZE);
+            }
+            ByteBuffer mapped = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+            fileChannel.close();
+            return new Rf2Tokenizer(mapped, null, null);
+        } catch (IOException | RuntimeException e) {
+            try {
+                fileChannel.close();
+            } catch (IOException closing) {
+                e.addSuppressed(closing);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the stream through a reusable direct buffer. Closing the tokenizer closes {@code owner}, which is
+     * typically the stream or the {@link ContentStreamProvider} it came from.
+     */
+    public static Rf2Tokenizer streaming(InputStream inputStream, AutoCloseable owner) {
+        return streaming(Channels.newChannel(inputStream), owner, DEFAULT_BUFFER_SIZE);
+    }
+
+    static Rf2Tokenizer streaming(ReadableByteChannel channel, AutoCloseable owner, int bufferSize) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        buffer.limit(0);
+        return new Rf2Tokenizer(buffer, channel, owner);
+    }
+
+    /**
+     * Advances to the next line.
+     *
+     * @return false once the input is exhausted
+     */
+    public boolean nextLine() throws IOException {
+        int newline = findNewline(nextLineStart);
+        while (newline < 0 && !endOfInput) {
+            refill();
+            newline = findNewline(nextLineStart);
+        }
+        lineStart = nextLineStart;
+        if (newline < 0) {
+            if (lineStart >= buffer.limit()) {
+                fieldCount = 0;
+                return false;
+            }
+            // last line without a terminator
+            lineEnd = buffer.limit();
+            nextLineStart = lineEnd;
+        } else {
+            lineEnd = newline;
+            nextLineStart = newline + 1;
+        }
+        if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+        splitFields();
+        return true;
+    }
+
+    /**
+     * @return the offset in the source of the first byte of the current line
+     */
+    public long lineOffset() {
+        return bufferOffset + lineStart;
+    }
+
+    /**
+     * @return the offset in the source of the first byte after the current line, where reading would resume
+     */
+    public long nextLineOffset() {
+        return bufferOffset + nextLineStart;
+    }
+
+    /**
+     * @return the time spent reading from the source so far, which for a zip entry includes inflating it; zero for a
+     * mapped file, whose reads happen as page faults while scanning
+     */
+    public long readNanos() {
+        return readNanos;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    public boolean isEmptyField(int field) {
+        return fieldStarts[field] == fieldEnds[field];
+    }
+
+    /**
+     * Parses an unsigned decimal field, such as an SCTID.
+     */
+    public long longField(int field) {
+        int end = end(field);
+        int start = fieldStarts[field];
+        if (start == end) {
+            throw malformed(field, "empty number");
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw malformed(field, "not a number");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses the RF2 active flag.
+     */
+    public boolean activeField(int field) {
+        int start = fieldStarts[field];
+        if (end(field) - start == 1) {
+            switch (buffer.get(start)) {
+                case '1': return true;
+                case '0': return false;
+            }
+        }
+        throw new RuntimeException("Unknown active value: " + stringField(field));
+    }
+
+    /**
+     * Parses a {@code yyyyMMdd} field as midnight UTC, the same instant
+     * {@code DateTimeUtil.compressedParse(value + "T000000Z")} gives.
+     */
+    public long dateFieldEpochMillis(int field) {
+        int start = fieldStarts[field];
+        if (end(field) - start != 8) {
+            throw malformed(field, "not a yyyyMMdd date");
+        }
+        int year = digits(field, start, 4);
+        int month = digits(field, start + 4, 2);
+        int day = digits(field, start + 6, 2);
+        if (month < 1 || month > 12 || day < 1 || day > 31) {
+            throw malformed(field, "not a yyyyMMdd date");
+        }
+        return epochDay(year, month, day) * MILLIS_PER_DAY;
+    }
+
+    public long uuidMostSignificantBits(int field) {
+        checkUuid(field);
+        int start = fieldStarts[field];
+        return hex(field, start, 8) << 32 | hex(field, start + 9, 4) << 16 | hex(field, start + 14, 4);
+    }
+
+    public long uuidLeastSignificantBits(int field) {
+        checkUuid(field);
+        int start = fieldStarts[field];
+        return hex(field, start + 19, 4) << 48 | hex(field, start + 24, 12);
+    }
+
+    /**
+     * Decodes a field as UTF-8. This is the only accessor that allocates.
+     */
+    public String stringField(int field) {
+        int start = fieldStarts[field];
+        int length = end(field) - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the length in bytes of the current line, without its terminator
+     */
+    public int lineLength() {
+        return lineEnd - lineStart;
+    }
+
+    /**
+     * Copies the current line, without its terminator, into the array.
+     */
+    public void copyLine(byte[] destination, int offset) {
+        buffer.get(lineStart, destination, offset, lineEnd - lineStart);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (channel != null) {
+            channel.close();
+        }
+        if (owner != null) {
+            owner.close();
+        }
+    }
+
+    private int findNewline(int from) {
+        int limit = buffer.limit();
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the unread tail of the buffer to the front and reads more input behind it, growing the buffer when a
+     * single line fills it.
+     */
+    private void refill() throws IOException {
+        int remaining = buffer.limit() - nextLineStart;
+        if (nextLineStart == 0 && remaining == buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            larger.put(0, buffer, 0, remaining);
+            larger.position(remaining);
+            buffer = larger;
+        } else {
+            buffer.position(nextLineStart);
+            buffer.compact();
+        }
+        bufferOffset += nextLineStart;
+        nextLineStart = 0;
+        long start = System.nanoTime();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                endOfInput = true;
+                break;
+            }
+        }
+        readNanos += System.nanoTime() - start;
+        buffer.limit(buffer.position());
+        buffer.position(0);
+    }
+
+    private void splitFields() {
+        fieldCount = 0;
+        int fieldStart = lineStart;
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (buffer.get(i) == '\t') {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        addField(fieldStart, lineEnd);
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private int end(int field) {
+        if (field >= fieldCount) {
+            throw new RuntimeException("Line at offset " + (bufferOffset + lineStart) + " has " + fieldCount
+                    + " fields, field " + field + " requested");
+        }
+        return fieldEnds[field];
+    }
+
+    private void checkUuid(int field) {
+        int start = fieldStarts[field];
+        if (end(field) - start != 36 || buffer.get(start + 8) != '-' || buffer.get(start + 13) != '-'
+                || buffer.get(start + 18) != '-' || buffer.get(start + 23) != '-') {
+            throw malformed(field, "not a UUID");
+        }
+    }
+
+    private int digits(int field, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw malformed(field, "not a number");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private long hex(int field, int from, int count) {
+        long value = 0;
+        for (int i = from; i < from + count; i++) {
+            int c = buffer.get(i);
+            int nibble;
+            if (c >= '0' && c <= '9') {
+                nibble = c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                nibble = c - 'a' + 10;
+            } else if (c >= 'A' && c <= 'F') {
+                nibble = c - 'A' + 10;
+            } else {
+                throw malformed(field, "not a UUID");
+            }
+            value = value << 4 | nibble;
+        }
+        return value;
+    }
+
+    private RuntimeException malformed(int field, String problem) {
+        return new RuntimeException("Field " + field + " of line at offset " + (bufferOffset + lineStart) + " is "
+                + problem + ": " + stringField(field));
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date, as {@code LocalDate.toEpochDay()} computes it.
+     */
+    static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+}
@@ -0,0 +1,112 @@
+package dev.ikm.load;
+
+import dev.ikm.tinkar.common.id.PublicId;
+import dev.ikm.tinkar.common.id.PublicIds;
+import dev.ikm.tinkar.common.service.PrimitiveData;
+import dev.ikm.tinkar.common.util.uuid.UuidT3Generator;
+import dev.ikm.tinkar.entity.Entity;
+import dev.ikm.tinkar.entity.SemanticEntityVersion;
+import dev.ikm.tinkar.terms.TinkarTerm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves SNOMED CT identifiers to their nid and {@link PublicId} once per identifier instead of once per row.
+ * <p>
+ * A release references a few hundred thousand distinct concepts and a handful of modules across millions of refset
+ * rows, so the import workers share one instance keyed by the raw SCTID. The UUID derivation and nid lookup only run
+ * on a miss.
+ */
+public class SctidResolutionCache {
+    private static final Logger LOG = LoggerFactory.getLogger(SctidResolutionCache.class);
+
+    private record Resolution(int nid, PublicId publicId) {}
+
+    private final ConcurrentLongMap<Resolution> resolutions = new ConcurrentLongMap<>(1 << 19);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public int nid(long sctid) {
+        return resolve(sctid).nid();
+    }
+
+    public PublicId publicId(long sctid) {
+        return resolve(sctid).publicId();
+    }
+
+    private Resolution resolve(long sctid) {
+        Resolution resolution = resolutions.get(sctid);
+        if (resolution != null) {
+            hits.increment();
+            return resolution;
+        }
+        misses.increment();
+        PublicId publicId = PublicIds.of(UuidT3Generator.fromSNOMED(sctid));
+        // Resolution is deterministic, so a concurrent miss on the same SCTID stores an equal value.
+        return resolutions.putIfAbsent(sctid, new Resolution(PrimitiveData.nid(publicId), publicId));
+    }
+
+    /**
+     * Loads the SCTIDs of the concepts already in the store from their identifier semantics, so the import starts
+     * with a warm cache. Identifier values that do not match one of the concept's UUIDs are ignored.
+     *
+     * @return the number of identifiers loaded
+     */
+    public int prewarm() {
+        long start = System.nanoTime();
+        LongAdder loaded = new LongAdder();
+        PrimitiveData.get().forEachConceptNid(conceptNid -> {
+            Entity.provider().forEachSemanticForComponentOfPattern(conceptNid, TinkarTerm.IDENTIFIER_PATTERN.nid(), identifierSemantic -> {
+                SemanticEntityVersion version = identifierSemantic.versions().get(0);
+                long sctid = parseSctid(version.fieldValues().get(1));
+                if (sctid > 0) {
+                    UUID sctidUuid = UuidT3Generator.fromSNOMED(sctid);
+                    for (UUID uuid : Entity.getFast(conceptNid).publicId().asUuidArray()) {
+                        if (uuid.equals(sctidUuid)) {
+                            resolutions.putIfAbsent(sctid, new Resolution(conceptNid, PublicIds.of(sctidUuid)));
+                            loaded.increment();
+                            break;
+                        }
+                    }
+                }
+            });
+        });
+        LOG.info("Prewarmed SCTID cache with {} concepts in {} ms", loaded.sum(), (System.nanoTime() - start) / 1_000_000);
+        return loaded.intValue();
+    }
+
+    private static long parseSctid(Object identifierValue) {
+        if (!(identifierValue instanceof String value) || value.isEmpty() || value.length() > 18) {
+            return -1;
+        }
+        long sctid = 0;
+        for (int i = 0; i < value.length(); i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            sctid = sctid * 10 + digit;
+        }
+        return sctid;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return resolutions.size();
+    }
+
+    @Override
+    public String toString() {
+        return "SctidResolutionCache{size=" + size() + ", hits=" + hits() + ", misses=" + misses() + '}';
+    }
+}
@@ -0,0 +1,87 @@
+package dev.ikm.load;
+
+import dev.ikm.tinkar.common.id.PublicId;
+import dev.ikm.tinkar.entity.StampEntity;
+import dev.ikm.tinkar.entity.transaction.Transaction;
+import dev.ikm.tinkar.terms.State;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates the stamps an import creates through {@link Transaction#getStamp}.
+ * <p>
+ * A full OWL refset has millions of rows but only a few hundred distinct combinations of state, effective date and
+ * module, and every row shares the author and path. Each combination is packed into one {@code long}: the state in
+ * the top bit, the effective date as days since the epoch in the next 31 bits, and the module nid in the low 32 bits.
+ * Lookups take no lock; a combination seen for the first time is passed to the transaction exactly once, with the
+ * same arguments the uncached path would use. Other states, and effective times that are not whole UTC days, are
+ * passed straight through.
+ * <p>
+ * An import that commits in chunks supplies its current transaction instead of a fixed one. Stamps cached from a
+ * transaction that has since been committed stay valid, and new combinations go to the transaction current at the
+ * time; the supplier may only change while no rows are being converted.
+ */
+final class StampCache {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long DAY_BIAS = 1L << 30;
+
+    private final Supplier<Transaction> transaction;
+    private final PublicId authorId;
+    private final PublicId pathId;
+    private final ConcurrentLongMap<StampEntity> stamps = new ConcurrentLongMap<>(1024);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    StampCache(Transaction transaction, PublicId authorId, PublicId pathId) {
+        this(() -> transaction, authorId, pathId);
+    }
+
+    StampCache(Supplier<Transaction> transaction, PublicId authorId, PublicId pathId) {
+        this.transaction = transaction;
+        this.authorId = authorId;
+        this.pathId = pathId;
+    }
+
+    StampEntity stamp(State state, long effectiveTimeInEpochMs, int moduleNid, PublicId moduleId) {
+        long day = Math.floorDiv(effectiveTimeInEpochMs, MILLIS_PER_DAY);
+        long biasedDay = day + DAY_BIAS;
+        if ((state != State.ACTIVE && state != State.INACTIVE) || day * MILLIS_PER_DAY != effectiveTimeInEpochMs
+                || biasedDay < 0 || biasedDay >= 1L << 31) {
+            misses.increment();
+            return create(state, effectiveTimeInEpochMs, moduleId);
+        }
+        long key = (state == State.ACTIVE ? 1L << 63 : 0L) | biasedDay << 32 | (moduleNid & 0xFFFFFFFFL);
+        StampEntity stamp = stamps.get(key);
+        if (stamp != null) {
+            hits.increment();
+            return stamp;
+        }
+        return stamps.computeIfAbsent(key, ignored -> {
+            misses.increment();
+            return create(state, effectiveTimeInEpochMs, moduleId);
+        });
+    }
+
+    private StampEntity create(State state, long effectiveTimeInEpochMs, PublicId moduleId) {
+        // The transaction keeps its own bookkeeping of the stamps it hands out, so creation is serialized on it.
+        Transaction current = transaction.get();
+        synchronized (current) {
+            //State state, long time, PublicId authorId, PublicId moduleId, PublicId pathId
+            return current.getStamp(state, effectiveTimeInEpochMs, authorId, moduleId, pathId);
+        }
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "StampCache{size=" + stamps.size() + ", hits=" + hits() + ", misses=" + misses() + '}';
+    }
+}
@@ -0,0 +1,99 @@
+package dev.ikm.load;
+
+import dev.ikm.load.ImportAndTransform.Fields;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reads OWL expression refset rows from RF2 text, parsing each field from the tokenizer's current line when it is
+ * asked for.
+ */
+final class TokenizedOwlRefsetRows implements OwlRefsetRows {
+    private final List<String> header;
+    private final Rf2Tokenizer tokenizer;
+    private final AutoCloseable owner;
+
+    /**
+     * @param header    the header fields, which the tokenizer has already read past or which, for a sorted file, came
+     *                  from the file it was sorted from
+     * @param tokenizer positioned before the first row
+     * @param owner     closed after the tokenizer, such as the directory of a sorted file; may be null
+     */
+    TokenizedOwlRefsetRows(List<String> header, Rf2Tokenizer tokenizer, AutoCloseable owner) {
+        this.header = List.copyOf(header);
+        this.tokenizer = tokenizer;
+        this.owner = owner;
+    }
+
+    @Override
+    public List<String> header() {
+        return header;
+    }
+
+    @Override
+    public boolean nextRow() throws IOException {
+        return tokenizer.nextLine();
+    }
+
+    @Override
+    public long rowOffset() {
+        return tokenizer.lineOffset();
+    }
+
+    @Override
+    public long nextRowOffset() {
+        return tokenizer.nextLineOffset();
+    }
+
+    @Override
+    public long readNanos() {
+        return tokenizer.readNanos();
+    }
+
+    @Override
+    public long idMostSignificantBits() {
+        return tokenizer.uuidMostSignificantBits(Fields.ID.ordinal());
+    }
+
+    @Override
+    public long idLeastSignificantBits() {
+        return tokenizer.uuidLeastSignificantBits(Fields.ID.ordinal());
+    }
+
+    @Override
+    public long effectiveTime() {
+        return tokenizer.dateFieldEpochMillis(Fields.EFFECTIVE_TIME.ordinal());
+    }
+
+    @Override
+    public boolean active() {
+        return tokenizer.activeField(Fields.ACTIVE.ordinal());
+    }
+
+    @Override
+    public long moduleSctid() {
+        return tokenizer.longField(Fields.MODULE_ID.ordinal());
+    }
+
+    @Override
+    public long referencedComponentSctid() {
+        return tokenizer.longField(Fields.REFERENCED_COMPONENT_ID.ordinal());
+    }
+
+    @Override
+    public String owlExpression() {
+        return tokenizer.stringField(Fields.OWL_EXPRESSION.ordinal());
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            tokenizer.close();
+        } finally {
+            if (owner != null) {
+                owner.close();
+            }
+        }
+    }
+}
@@ -1,16 +1,21 @@
 import dev.ikm.tinkar.common.service.ExecutorController;
 import dev.ikm.tinkar.common.service.DataServiceController;
 import dev.ikm.tinkar.common.service.PrimitiveDataService;
+import dev.ikm.tinkar.reasoner.service.ReasonerService;
 
 module process.snomed.owl {
     requires dev.ikm.snomedct.entitytransformer;
     requires dev.ikm.tinkar.ext.lang.owl;
     requires dev.ikm.tinkar.coordinate;
     requires dev.ikm.tinkar.entity;
+    requires dev.ikm.tinkar.reasoner.service;
+    requires jdk.jfr;
+    requires jdk.management;
     requires org.eclipse.collections.api;
     requires org.slf4j;
 
     uses DataServiceController;
     uses ExecutorController;
     uses PrimitiveDataService;
+    uses ReasonerService;
 }
\ No newline at end of file
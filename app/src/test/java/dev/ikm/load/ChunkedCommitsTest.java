@@ -0,0 +1,134 @@
+package dev.ikm.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Covers when a chunk is due and which checkpoint applies; committing needs a running data store and is left to the
+ * import itself.
+ */
+class ChunkedCommitsTest {
+    private static final String ENTRY = "Full/Terminology/sct2_sRefset_OWLExpressionFull_INT_20240901.txt";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void isDueEveryCommitRows() {
+        ChunkedCommits commits = new ChunkedCommits(null, directory, 1_000, 0);
+        assertFalse(commits.due(0));
+        assertFalse(commits.due(1));
+        assertFalse(commits.due(999));
+        assertTrue(commits.due(1_000));
+        assertTrue(commits.due(1_001));
+    }
+
+    @Test
+    void isNeverDueWithoutLimits() {
+        ChunkedCommits commits = new ChunkedCommits(null, directory, 0, 0);
+        assertFalse(commits.due(1));
+        assertFalse(commits.due(Long.MAX_VALUE));
+    }
+
+    @Test
+    void isDueAfterCommitSecondsOnceRowsWereRead() {
+        AtomicLong nanos = new AtomicLong(123_456_789L);
+        ChunkedCommits commits = new ChunkedCommits(null, directory, 0, 2, nanos::get);
+        assertFalse(commits.due(1));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2) - 1);
+        assertFalse(commits.due(1));
+        nanos.incrementAndGet();
+        assertFalse(commits.due(0));
+        assertTrue(commits.due(1));
+    }
+
+    @Test
+    void countsRowsFromTheCheckpointResumedFrom() throws Exception {
+        new ImportCheckpoint("release", ENTRY, false, Long.MIN_VALUE, 4_096L, UUID.randomUUID(), 2_500L, 2_400L,
+                Instant.now()).save(directory);
+        ChunkedCommits commits = new ChunkedCommits(null, directory, 1_000, 0);
+
+        Optional<ImportCheckpoint> checkpoint = commits.start("release", ENTRY, false, EffectiveTimeFilter.all());
+        assertTrue(checkpoint.isPresent());
+        assertEquals(2_400L, commits.recordsBeforeResume());
+        assertFalse(commits.due(2_500));
+        assertFalse(commits.due(3_499));
+        assertTrue(commits.due(3_500));
+    }
+
+    @Test
+    void ignoresTheCheckpointOfOtherRows() throws Exception {
+        new ImportCheckpoint("release", ENTRY, false, Long.MIN_VALUE, 4_096L, UUID.randomUUID(), 2_500L, 2_400L,
+                Instant.now()).save(directory);
+        ChunkedCommits commits = new ChunkedCommits(null, directory, 1_000, 0);
+
+        assertTrue(commits.start("release", ENTRY, true, EffectiveTimeFilter.all()).isEmpty());
+        assertEquals(0L, commits.recordsBeforeResume());
+        assertTrue(commits.due(1_000));
+    }
+
+    @Test
+    void countsEachFileStartedFromItsOwnStart() throws Exception {
+        String extension = ENTRY.replace("_INT_", "_US1000124_");
+        new ImportCheckpoint("release", ENTRY, false, Long.MIN_VALUE, 4_096L, UUID.randomUUID(), 2_500L, 2_400L,
+                Instant.now()).save(directory);
+        AtomicLong nanos = new AtomicLong();
+        ChunkedCommits commits = new ChunkedCommits(null, directory, 1_000, 2, nanos::get);
+
+        assertTrue(commits.start("release", ENTRY, false, EffectiveTimeFilter.all()).isPresent());
+        assertEquals(2_400L, commits.recordsBeforeResume());
+        assertFalse(commits.due(3_000));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2) - 1);
+
+        // the second refset of the release has no checkpoint, and neither the first one's rows nor its time count
+        assertTrue(commits.start("release", extension, false, EffectiveTimeFilter.all()).isEmpty());
+        assertEquals(0L, commits.recordsBeforeResume());
+        assertFalse(commits.due(999));
+        assertTrue(commits.due(1_000));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertFalse(commits.due(1));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(commits.due(1));
+
+        // each file keeps its own checkpoint, and finishing removes them all
+        new ImportCheckpoint("release", extension, false, Long.MIN_VALUE, 512L, UUID.randomUUID(), 100L, 90L,
+                Instant.now()).save(directory);
+        assertEquals(2_400L, ImportCheckpoint.load(directory, ENTRY).orElseThrow().recordCount());
+        assertEquals(90L, ImportCheckpoint.load(directory, extension).orElseThrow().recordCount());
+        commits.finish();
+        assertTrue(ImportCheckpoint.load(directory, ENTRY).isEmpty());
+        assertTrue(ImportCheckpoint.load(directory, extension).isEmpty());
+    }
+
+    @Test
+    void endsAFileWithoutCommittingWhenNothingIsDue() throws Exception {
+        ChunkedCommits unchunked = new ChunkedCommits(null, directory, 0, 0);
+        unchunked.start("release", ENTRY, false, EffectiveTimeFilter.all());
+        unchunked.endFile(4_096L, UUID.randomUUID(), 2_500L, 2_400L);
+
+        new ImportCheckpoint("release", ENTRY, false, Long.MIN_VALUE, 4_096L, UUID.randomUUID(), 2_500L, 2_400L,
+                Instant.now()).save(directory);
+        ChunkedCommits resumed = new ChunkedCommits(null, directory, 1_000, 0);
+        resumed.start("release", ENTRY, false, EffectiveTimeFilter.all());
+        resumed.endFile(4_096L, UUID.randomUUID(), 2_500L, 0L);
+        assertEquals(4_096L, ImportCheckpoint.load(directory, ENTRY).orElseThrow().offset());
+    }
+
+    @Test
+    void rejectsNegativeLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new ChunkedCommits(null, directory, -1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ChunkedCommits(null, directory, 0, -1));
+    }
+}
@@ -0,0 +1,172 @@
+package dev.ikm.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportCheckpointTest {
+    private static final String HEADER = "id\teffectiveTime\tactive\tmoduleId\trefsetId\treferencedComponentId"
+            + "\towlExpression\n";
+    private static final String ENTRY = "Full/Terminology/sct2_sRefset_OWLExpressionFull_INT_20240901.txt";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsThroughTheFile() throws Exception {
+        ImportCheckpoint checkpoint = new ImportCheckpoint("release.zip!" + ENTRY + "@1a2b3c4d", ENTRY, true,
+                Long.MIN_VALUE, 123_456_789_012L, UUID.randomUUID(), 4_000_000L, 3_500_000L,
+                Instant.parse("2024-09-01T12:34:56.789Z"));
+        assertTrue(ImportCheckpoint.load(directory, ENTRY).isEmpty());
+
+        checkpoint.save(directory);
+        assertFalse(Files.exists(directory.resolve(ImportCheckpoint.fileName(ENTRY) + ".tmp")));
+        assertEquals(Optional.of(checkpoint), ImportCheckpoint.load(directory, ENTRY));
+
+        ImportCheckpoint.delete(directory, ENTRY);
+        assertTrue(ImportCheckpoint.load(directory, ENTRY).isEmpty());
+        ImportCheckpoint.delete(directory, ENTRY);
+    }
+
+    @Test
+    void keepsACheckpointPerEntry() throws Exception {
+        String extension = "Full/Terminology/sct2_sRefset_OWLExpressionFull_US1000124_20240901.txt";
+        String nested = "SnomedCT_InternationalRF2.zip!/" + ENTRY;
+        ImportCheckpoint international = new ImportCheckpoint("release", ENTRY, false, Long.MIN_VALUE, 100L,
+                UUID.randomUUID(), 1L, 1L, Instant.now());
+        ImportCheckpoint us = new ImportCheckpoint("release", extension, false, Long.MIN_VALUE, 200L,
+                UUID.randomUUID(), 2L, 2L, Instant.now());
+        international.save(directory);
+        us.save(directory);
+
+        assertEquals(Optional.of(international), ImportCheckpoint.load(directory, ENTRY));
+        assertEquals(Optional.of(us), ImportCheckpoint.load(directory, extension));
+        assertTrue(ImportCheckpoint.load(directory, nested).isEmpty());
+
+        ImportCheckpoint.delete(directory, ENTRY);
+        assertTrue(ImportCheckpoint.load(directory, ENTRY).isEmpty());
+        assertEquals(Optional.of(us), ImportCheckpoint.load(directory, extension));
+    }
+
+    @Test
+    void appliesOnlyToTheSameRowsReadTheSameWay() {
+        ImportCheckpoint checkpoint = new ImportCheckpoint("release", ENTRY, false, 1_000L, 10L, UUID.randomUUID(),
+                1L, 1L, Instant.now());
+        assertTrue(checkpoint.appliesTo("release", ENTRY, false, 1_000L));
+        assertFalse(checkpoint.appliesTo("other release", ENTRY, false, 1_000L));
+        assertFalse(checkpoint.appliesTo("release", ENTRY.replace("Full", "Delta"), false, 1_000L));
+        assertFalse(checkpoint.appliesTo("release", ENTRY, true, 1_000L));
+        assertFalse(checkpoint.appliesTo("release", ENTRY, false, Long.MIN_VALUE));
+    }
+
+    @Test
+    void replaysToAMidFileCheckpoint() throws Exception {
+        // member 2 has three versions; the run committed through it and stopped before member 3
+        String content = HEADER
+                + row(1, "20020131") + row(1, "20240901")
+                + row(2, "20020131") + row(2, "20230301") + row(2, "20240901")
+                + row(3, "20020131") + row(4, "20020131");
+        long offset = (HEADER + row(1, "20020131") + row(1, "20240901") + row(2, "20020131") + row(2, "20230301")
+                + row(2, "20240901")).getBytes(StandardCharsets.UTF_8).length;
+        ImportCheckpoint checkpoint = checkpoint(offset, member(2));
+
+        List<UUID> replayed = new ArrayList<>();
+        RefsetMemberGrouping grouping = new RefsetMemberGrouping();
+        try (OwlRefsetRows rows = rows(content)) {
+            checkpoint.replay(rows, EffectiveTimeFilter.all(), grouping, started -> replayed.add(memberOf(started)));
+            assertEquals(List.of(member(1), member(2)), replayed);
+            assertEquals(5, grouping.rows());
+
+            assertTrue(rows.nextRow());
+            assertEquals(offset, rows.rowOffset());
+            assertTrue(grouping.startsNewMember(rows));
+            assertEquals(member(3), grouping.lastMember());
+        }
+    }
+
+    @Test
+    void replaysThroughRowsTheFilterSkips() throws Exception {
+        String content = HEADER + row(1, "20020131") + row(2, "20020131") + row(2, "20240901") + row(3, "20240901");
+        long offset = (HEADER + row(1, "20020131") + row(2, "20020131") + row(2, "20240901"))
+                .getBytes(StandardCharsets.UTF_8).length;
+        EffectiveTimeFilter filter = EffectiveTimeFilter.after(epochMillis(2020, 1, 1));
+
+        List<UUID> replayed = new ArrayList<>();
+        try (OwlRefsetRows rows = rows(content)) {
+            checkpoint(offset, member(2)).replay(rows, filter, new RefsetMemberGrouping(),
+                    started -> replayed.add(memberOf(started)));
+        }
+        assertEquals(List.of(member(2)), replayed);
+        assertEquals(2, filter.skipped());
+        assertEquals(epochMillis(2024, 9, 1), filter.latestAccepted());
+    }
+
+    @Test
+    void rejectsACheckpointTheRowsDoNotMatch() throws Exception {
+        String content = HEADER + row(1, "20020131") + row(2, "20020131") + row(3, "20020131");
+        long memberTwoEnd = (HEADER + row(1, "20020131") + row(2, "20020131")).getBytes(StandardCharsets.UTF_8).length;
+
+        // another member before the offset
+        assertThrows(IllegalStateException.class, () -> replay(content, checkpoint(memberTwoEnd, member(1))));
+        // an offset inside a row
+        assertThrows(IllegalStateException.class, () -> replay(content, checkpoint(memberTwoEnd - 3, member(2))));
+        // an offset past the end of the rows
+        assertThrows(IllegalStateException.class, () -> replay(content,
+                checkpoint(content.getBytes(StandardCharsets.UTF_8).length + 1L, member(3))));
+    }
+
+    private static void replay(String content, ImportCheckpoint checkpoint) throws Exception {
+        try (OwlRefsetRows rows = rows(content)) {
+            checkpoint.replay(rows, EffectiveTimeFilter.all(), new RefsetMemberGrouping(), started -> { });
+        }
+    }
+
+    private static ImportCheckpoint checkpoint(long offset, UUID lastMemberId) {
+        return new ImportCheckpoint("release", ENTRY, false, Long.MIN_VALUE, offset, lastMemberId, 0L, 0L,
+                Instant.now());
+    }
+
+    private static OwlRefsetRows rows(String content) throws Exception {
+        Rf2Tokenizer tokenizer = Rf2Tokenizer.streaming(new ByteArrayInputStream(
+                content.getBytes(StandardCharsets.UTF_8)), null);
+        assertTrue(tokenizer.nextLine());
+        List<String> header = new ArrayList<>();
+        for (int field = 0; field < tokenizer.fieldCount(); field++) {
+            header.add(tokenizer.stringField(field));
+        }
+        return new TokenizedOwlRefsetRows(header, tokenizer, null);
+    }
+
+    private static UUID memberOf(OwlRefsetRows rows) {
+        return new UUID(rows.idMostSignificantBits(), rows.idLeastSignificantBits());
+    }
+
+    private static UUID member(int number) {
+        return new UUID(0x0123456789ABCDEFL, number);
+    }
+
+    private static String row(int member, String effectiveTime) {
+        return member(member) + "\t" + effectiveTime + "\t1\t900000000000207008\t733073007\t" + (100_000 + member)
+                + "\tSubClassOf(:" + (100_000 + member) + " :138875005)\n";
+    }
+
+    private static long epochMillis(int year, int month, int day) {
+        return LocalDate.of(year, month, day).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
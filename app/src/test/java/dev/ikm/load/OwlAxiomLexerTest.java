@@ -0,0 +1,74 @@
+package dev.ikm.load;
+
+import dev.ikm.snomedct.entitytransformer.SnomedUtility;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Compares the lexer with the passes over the axiom text it replaced: {@link SnomedUtility#owlAxiomIdsToPublicIds},
+ * the searches for "property" and "objectpropertychain", and the lower cased keyword rewrite of property axioms.
+ */
+class OwlAxiomLexerTest {
+    /**
+     * Axioms as the International OWL expression refset states them, with role groups, concrete values, GCIs,
+     * property axioms and the ontology header.
+     */
+    private static final List<String> AXIOMS = List.of(
+            "SubClassOf(:404684003 :138875005)",
+            "EquivalentClasses(:22298006 ObjectIntersectionOf(:414545008 :64572001 ObjectSomeValuesFrom(:609096000 "
+                    + "ObjectIntersectionOf(ObjectSomeValuesFrom(:116676008 :55641003) "
+                    + "ObjectSomeValuesFrom(:363698007 :74281007)))))",
+            "SubClassOf(:322236009 ObjectIntersectionOf(:763158003 ObjectSomeValuesFrom(:411116001 :421026006) "
+                    + "ObjectSomeValuesFrom(:609096000 ObjectIntersectionOf("
+                    + "ObjectSomeValuesFrom(:732943007 :387517004) ObjectSomeValuesFrom(:732945000 :258684004) "
+                    + "ObjectSomeValuesFrom(:732947008 :732936001) "
+                    + "ObjectSomeValuesFrom(:762949000 :387517004) DataHasValue(:3311481000 \"500\"^^xsd:decimal) "
+                    + "DataHasValue(:3311482007 \"1\"^^xsd:decimal))) DataHasValue(:1142139005 \"1\"^^xsd:integer)))",
+            "SubClassOf(ObjectIntersectionOf(:73211009 ObjectSomeValuesFrom(:609096000 "
+                    + "ObjectSomeValuesFrom(:100105001 :100103008))) :8801005)",
+            "SubObjectPropertyOf(:363701004 :762705008)",
+            "SubDataPropertyOf(:3311481000 :762706009)",
+            "SubObjectPropertyOf(ObjectPropertyChain(:246093002 :738774007) :246093002)",
+            "TransitiveObjectProperty(:738774007)",
+            "ReflexiveObjectProperty(:733928003)",
+            "Ontology(<http://snomed.info/sct/900000000000207008>)");
+
+    @Test
+    void rendersWhatTheTextPassesProduced() {
+        OwlAxiomLexer lexer = new OwlAxiomLexer();
+        for (String axiom : AXIOMS) {
+            lexer.lex(axiom);
+            String publicIds = SnomedUtility.owlAxiomIdsToPublicIds(axiom);
+            String lowerCase = publicIds.toLowerCase();
+
+            assertEquals(publicIds, render(lexer::appendPublicIdForm), axiom);
+            assertEquals(lowerCase.contains("property"), lexer.mentionsProperty(), axiom);
+            assertEquals(lowerCase.contains("objectpropertychain"), lexer.hasPropertyChain(), axiom);
+            if (lexer.mentionsProperty()) {
+                assertEquals(lowerCase.replace("subobjectpropertyof", " subclassof")
+                        .replace("subdatapropertyof", " subclassof"), render(lexer::appendAsClassAxiom), axiom);
+            }
+        }
+    }
+
+    @Test
+    void doesNotLookForPropertiesInLiterals() {
+        String axiom = "SubClassOf(:404684003 ObjectIntersectionOf(:138875005 "
+                + "DataHasValue(:3311481000 \"SubObjectPropertyOf\"^^xsd:string)))";
+        OwlAxiomLexer lexer = new OwlAxiomLexer().lex(axiom);
+        assertFalse(lexer.mentionsProperty());
+        assertFalse(lexer.hasPropertyChain());
+        assertEquals(SnomedUtility.owlAxiomIdsToPublicIds(axiom), render(lexer::appendPublicIdForm));
+    }
+
+    private static String render(Consumer<StringBuilder> append) {
+        StringBuilder builder = new StringBuilder();
+        append.accept(builder);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,261 @@
+package dev.ikm.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OwlRefsetColumnCacheTest {
+    private static final String HEADER = "id\teffectiveTime\tactive\tmoduleId\trefsetId\treferencedComponentId"
+            + "\towlExpression";
+    private static final long CRC = 0x1A2B3C4DL;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * The values of one row as an {@link OwlRefsetRows} reports them.
+     */
+    private record Row(long rowOffset, long nextRowOffset, long idMostSignificantBits, long idLeastSignificantBits,
+                       long effectiveTime, boolean active, long moduleSctid, long referencedComponentSctid,
+                       String owlExpression) {
+        static Row of(OwlRefsetRows rows) {
+            return new Row(rows.rowOffset(), rows.nextRowOffset(), rows.idMostSignificantBits(),
+                    rows.idLeastSignificantBits(), rows.effectiveTime(), rows.active(), rows.moduleSctid(),
+                    rows.referencedComponentSctid(), rows.owlExpression());
+        }
+    }
+
+    @Test
+    void roundTripsEveryRowDeflated() throws Exception {
+        assertRoundTrip(true);
+    }
+
+    @Test
+    void roundTripsEveryRowStored() throws Exception {
+        assertRoundTrip(false);
+    }
+
+    @Test
+    void rebuildsWhenTheSourceChanged() throws Exception {
+        byte[] content = refset(500);
+        Path file = directory.resolve("refset.columns");
+        writeCache(new OwlRefsetColumnCache(file, CRC, content.length, true), content);
+
+        assertTrue(new OwlRefsetColumnCache(file, CRC, content.length, true).open().isPresent());
+        assertTrue(new OwlRefsetColumnCache(file, CRC + 1, content.length, true).open().isEmpty());
+        assertTrue(new OwlRefsetColumnCache(file, CRC, content.length + 1L, true).open().isEmpty());
+        Files.write(file, new byte[128]);
+        assertTrue(new OwlRefsetColumnCache(file, CRC, content.length, true).open().isEmpty());
+    }
+
+    @Test
+    void rebuildsATruncatedCache() throws Exception {
+        byte[] content = refset(500);
+        Path file = directory.resolve("refset.columns");
+        OwlRefsetColumnCache cache = new OwlRefsetColumnCache(file, CRC, content.length, true);
+        writeCache(cache, content);
+        byte[] complete = Files.readAllBytes(file);
+
+        for (int length : new int[]{0, 40, 64, complete.length / 2, complete.length - 8, complete.length - 1}) {
+            Files.write(file, Arrays.copyOf(complete, length));
+            assertTrue(cache.open().isEmpty(), length + " bytes");
+        }
+    }
+
+    @Test
+    void rejectsAPoolBlockCutShort() throws Exception {
+        byte[] content = refset(2_000);
+        Path file = directory.resolve("refset.columns");
+        OwlRefsetColumnCache cache = new OwlRefsetColumnCache(file, CRC, content.length, true);
+        writeCache(cache, content);
+
+        // the block offsets are the only run of blocks + 1 longs from zero up to the pool size
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        int blocks = bytes.getInt(32);
+        long poolBytes = bytes.getLong(48);
+        assertTrue(blocks > 1);
+        int blockOffsets = -1;
+        for (int position = 64; position + Long.BYTES * (blocks + 1) <= bytes.capacity(); position += Long.BYTES) {
+            if (bytes.getLong(position) == 0 && bytes.getLong(position + Long.BYTES * blocks) == poolBytes) {
+                blockOffsets = position;
+                break;
+            }
+        }
+        assertTrue(blockOffsets > 0);
+
+        // a decreasing offset is caught when the cache is opened
+        long secondBlock = bytes.getLong(blockOffsets + Long.BYTES);
+        bytes.putLong(blockOffsets + Long.BYTES, poolBytes + 1);
+        Files.write(file, bytes.array());
+        assertTrue(cache.open().isEmpty());
+
+        // a first block that ends early is only found when it is inflated, which must fail rather than spin
+        bytes.putLong(blockOffsets + Long.BYTES, secondBlock / 2);
+        Files.write(file, bytes.array());
+        Optional<OwlRefsetRows> cached = cache.open();
+        assertTrue(cached.isPresent());
+        try (OwlRefsetRows rows = cached.get()) {
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                assertTrue(rows.nextRow());
+                assertThrows(IllegalStateException.class, rows::owlExpression);
+            });
+        }
+    }
+
+    @Test
+    void discardsACacheOfPartlyReadRows() throws Exception {
+        byte[] content = refset(500);
+        Path file = directory.resolve("refset.columns");
+        OwlRefsetColumnCache cache = new OwlRefsetColumnCache(file, CRC, content.length, true);
+        try (OwlRefsetRows rows = cache.writeThrough(rows(content))) {
+            for (int i = 0; i < 100; i++) {
+                assertTrue(rows.nextRow());
+            }
+        }
+        assertTrue(cache.open().isEmpty());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(), files.toList());
+        }
+    }
+
+    @Test
+    void resumesFromATextCheckpoint() throws Exception {
+        byte[] content = refset(2_000);
+        Path file = directory.resolve("refset.columns");
+        OwlRefsetColumnCache cache = new OwlRefsetColumnCache(file, CRC, content.length, true);
+        writeCache(cache, content);
+
+        // a checkpoint an interrupted run took on the text, after the member of the 1000th row
+        List<Row> expected = readText(content);
+        int resumeRow = 1_000;
+        Row last = expected.get(resumeRow - 1);
+        while (expected.get(resumeRow).idLeastSignificantBits() == last.idLeastSignificantBits()) {
+            last = expected.get(resumeRow++);
+        }
+        ImportCheckpoint checkpoint = new ImportCheckpoint("release", "entry", false, Long.MIN_VALUE,
+                last.nextRowOffset(), new UUID(last.idMostSignificantBits(), last.idLeastSignificantBits()),
+                resumeRow, resumeRow, Instant.now());
+
+        Optional<OwlRefsetRows> cached = cache.open();
+        assertTrue(cached.isPresent());
+        try (OwlRefsetRows rows = cached.get()) {
+            checkpoint.replay(rows, EffectiveTimeFilter.all(), new RefsetMemberGrouping(), started -> { });
+            assertEquals(expected.subList(resumeRow, expected.size()), readAll(rows));
+        }
+    }
+
+    private void assertRoundTrip(boolean compress) throws Exception {
+        byte[] content = refset(20_000);
+        List<Row> expected = readText(content);
+        Path file = directory.resolve("refset.columns");
+        OwlRefsetColumnCache cache = new OwlRefsetColumnCache(file, CRC, content.length, compress);
+
+        try (OwlRefsetRows rows = cache.writeThrough(rows(content))) {
+            assertEquals(List.of(HEADER.split("\t")), rows.header());
+            assertEquals(expected, readAll(rows));
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(file), files.toList());
+        }
+
+        Optional<OwlRefsetRows> cached = cache.open();
+        assertTrue(cached.isPresent());
+        try (OwlRefsetRows rows = cached.get()) {
+            assertEquals(List.of(HEADER.split("\t")), rows.header());
+            assertEquals(expected, readAll(rows));
+            assertFalse(rows.nextRow());
+        }
+    }
+
+    private static void writeCache(OwlRefsetColumnCache cache, byte[] content) throws Exception {
+        try (OwlRefsetRows rows = cache.writeThrough(rows(content))) {
+            readAll(rows);
+        }
+    }
+
+    private static List<Row> readAll(OwlRefsetRows rows) throws Exception {
+        List<Row> read = new ArrayList<>();
+        while (rows.nextRow()) {
+            read.add(Row.of(rows));
+        }
+        return read;
+    }
+
+    private static List<Row> readText(byte[] content) throws Exception {
+        try (OwlRefsetRows rows = rows(content)) {
+            return readAll(rows);
+        }
+    }
+
+    private static OwlRefsetRows rows(byte[] content) throws Exception {
+        Rf2Tokenizer tokenizer = Rf2Tokenizer.streaming(new ByteArrayInputStream(content), null);
+        assertTrue(tokenizer.nextLine());
+        List<String> header = new ArrayList<>();
+        for (int field = 0; field < tokenizer.fieldCount(); field++) {
+            header.add(tokenizer.stringField(field));
+        }
+        return new TokenizedOwlRefsetRows(header, tokenizer, null);
+    }
+
+    /**
+     * An OWL expression refset with one to three versions of each member, where later versions often keep the
+     * expression, and with non-ASCII text and an expression longer than a pool block.
+     */
+    private static byte[] refset(int members) {
+        Random random = new Random(members);
+        StringBuilder text = new StringBuilder(HEADER).append("\r\n");
+        for (int member = 0; member < members; member++) {
+            UUID id = new UUID(0x0123456789ABCDEFL, member);
+            long concept = 100_000_000L + member * 1_000L;
+            String expression = expression(concept, random);
+            if (member == members / 2) {
+                expression = "SubClassOf(:" + concept + " ObjectIntersectionOf(" + " :138875005".repeat(7_000) + "))";
+            }
+            int versions = 1 + random.nextInt(3);
+            for (int version = 0; version < versions; version++) {
+                if (version > 0 && random.nextInt(3) == 0) {
+                    expression = expression(concept, random);
+                }
+                text.append(id).append('\t').append(2002 + version * 10).append("0131\t")
+                        .append(version == versions - 1 && random.nextInt(10) == 0 ? '0' : '1')
+                        .append("\t900000000000207008\t733073007\t").append(concept).append('\t')
+                        .append(expression).append("\r\n");
+            }
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String expression(long concept, Random random) {
+        StringBuilder expression = new StringBuilder("EquivalentClasses(:").append(concept)
+                .append(" ObjectIntersectionOf(:").append(concept + 1 + random.nextInt(999));
+        for (int role = random.nextInt(6); role > 0; role--) {
+            expression.append(" ObjectSomeValuesFrom(:609096000 ObjectSomeValuesFrom(:")
+                    .append(363_698_007L + random.nextInt(1_000)).append(" :").append(random.nextInt(1 << 30))
+                    .append("))");
+        }
+        if (random.nextInt(50) == 0) {
+            expression.append(" Annotation(rdfs:label \"Sj\u00f6gren\u2019s syndrome \u2013 \u211e\")");
+        }
+        return expression.append("))").toString();
+    }
+}
@@ -0,0 +1,124 @@
+package dev.ikm.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OwlSemanticIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsThroughTheFile() throws Exception {
+        // nids are negative in a Tinkar store; mix in positive ones to cover the sign handling of the pair sort
+        Random random = new Random(42);
+        Map<Integer, Set<Integer>> expected = new TreeMap<>();
+        OwlSemanticIndex.Builder builder = OwlSemanticIndex.builder();
+        for (int i = 0; i < 200_000; i++) {
+            int conceptNid = random.nextBoolean()
+                    ? Integer.MIN_VALUE + 1 + random.nextInt(5_000)
+                    : random.nextInt(5_000);
+            int semanticNid = random.nextInt();
+            builder.add(conceptNid, semanticNid);
+            expected.computeIfAbsent(conceptNid, nid -> new TreeSet<>()).add(semanticNid);
+        }
+
+        OwlSemanticIndex built = builder.build();
+        assertIndex(expected, built);
+
+        built.save(directory);
+        assertFalse(Files.exists(directory.resolve(OwlSemanticIndex.FILE_NAME + ".tmp")));
+        Optional<OwlSemanticIndex> opened = OwlSemanticIndex.open(directory);
+        assertTrue(opened.isPresent());
+        assertIndex(expected, opened.get());
+    }
+
+    @Test
+    void removesDuplicatePairs() {
+        OwlSemanticIndex.Builder builder = OwlSemanticIndex.builder();
+        builder.add(-10, -100);
+        builder.add(-20, -200);
+        builder.add(-10, -100);
+        builder.add(-10, -101);
+        builder.add(-20, -200);
+
+        OwlSemanticIndex index = builder.build();
+        assertEquals(2, index.conceptCount());
+        assertEquals(3, index.semanticCount());
+        assertEquals(-20, index.conceptNid(0));
+        assertEquals(1, index.semanticCountAt(0));
+        assertEquals(-10, index.conceptNid(1));
+        assertEquals(2, index.semanticCountAt(1));
+
+        OwlSemanticIndex.Builder extended = OwlSemanticIndex.builder();
+        extended.addAll(index);
+        extended.add(-10, -101);
+        extended.add(-30, -300);
+        OwlSemanticIndex merged = extended.build();
+        assertEquals(3, merged.conceptCount());
+        assertEquals(4, merged.semanticCount());
+    }
+
+    @Test
+    void opensNothingWithoutAnIndexFile() throws Exception {
+        assertTrue(OwlSemanticIndex.open(directory).isEmpty());
+
+        Files.write(directory.resolve(OwlSemanticIndex.FILE_NAME), new byte[16]);
+        assertTrue(OwlSemanticIndex.open(directory).isEmpty());
+    }
+
+    @Test
+    void opensNothingFromATruncatedIndex() throws Exception {
+        OwlSemanticIndex.Builder builder = OwlSemanticIndex.builder();
+        for (int i = 0; i < 1_000; i++) {
+            builder.add(Integer.MIN_VALUE + 1 + i / 3, -i);
+        }
+        builder.build().save(directory);
+        Path file = directory.resolve(OwlSemanticIndex.FILE_NAME);
+        byte[] complete = Files.readAllBytes(file);
+
+        for (int length : new int[]{0, 7, 16, 20, complete.length / 2, complete.length - 4}) {
+            Files.write(file, Arrays.copyOf(complete, length));
+            assertTrue(OwlSemanticIndex.open(directory).isEmpty(), length + " bytes");
+        }
+        Files.write(file, Arrays.copyOf(complete, complete.length + 4));
+        assertTrue(OwlSemanticIndex.open(directory).isEmpty());
+
+        Files.write(file, complete);
+        assertEquals(1_000, OwlSemanticIndex.open(directory).orElseThrow().semanticCount());
+    }
+
+    private static void assertIndex(Map<Integer, Set<Integer>> expected, OwlSemanticIndex index) {
+        assertEquals(expected.size(), index.conceptCount());
+        assertEquals(expected.values().stream().mapToInt(Set::size).sum(), index.semanticCount());
+        int position = 0;
+        for (Map.Entry<Integer, Set<Integer>> entry : expected.entrySet()) {
+            assertEquals(entry.getKey().intValue(), index.conceptNid(position));
+            assertEquals(entry.getValue().size(), index.semanticCountAt(position));
+            List<Integer> semantics = new ArrayList<>();
+            index.forEachSemantic(entry.getKey(), semantics::add);
+            assertEquals(entry.getValue(), new TreeSet<>(semantics));
+            assertEquals(entry.getValue().size(), semantics.size());
+            position++;
+        }
+        List<Integer> missing = new ArrayList<>();
+        index.forEachSemantic(Integer.MAX_VALUE, missing::add);
+        assertTrue(missing.isEmpty());
+    }
+}
@@ -0,0 +1,136 @@
+package dev.ikm.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Rf2TokenizerTest {
+
+    @TempDir
+    Path directory;
+
+    private static Rf2Tokenizer tokenizer(String content, int bufferSize) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return Rf2Tokenizer.streaming(Channels.newChannel(new ByteArrayInputStream(bytes)), null, bufferSize);
+    }
+
+    @Test
+    void epochDayMatchesLocalDate() {
+        for (LocalDate date = LocalDate.of(1899, 12, 1); date.getYear() < 2101; date = date.plusDays(1)) {
+            assertEquals(date.toEpochDay(), Rf2Tokenizer.epochDay(date.getYear(), date.getMonthValue(),
+                    date.getDayOfMonth()), date.toString());
+        }
+    }
+
+    @Test
+    void parsesDatesAsMidnightUtc() throws Exception {
+        try (Rf2Tokenizer tokenizer = tokenizer("20020131\t20240229\t19700101\n", 64)) {
+            assertTrue(tokenizer.nextLine());
+            assertEquals(LocalDate.of(2002, 1, 31).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli(),
+                    tokenizer.dateFieldEpochMillis(0));
+            assertEquals(LocalDate.of(2024, 2, 29).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli(),
+                    tokenizer.dateFieldEpochMillis(1));
+            assertEquals(0L, tokenizer.dateFieldEpochMillis(2));
+        }
+    }
+
+    @Test
+    void rejectsMalformedDates() throws Exception {
+        try (Rf2Tokenizer tokenizer = tokenizer("2024091\t20241301\t2024O901\t20240900\n", 64)) {
+            assertTrue(tokenizer.nextLine());
+            for (int field = 0; field < tokenizer.fieldCount(); field++) {
+                int malformed = field;
+                assertThrows(RuntimeException.class, () -> tokenizer.dateFieldEpochMillis(malformed));
+            }
+        }
+    }
+
+    @Test
+    void parsesUuids() throws Exception {
+        String[] texts = {
+                "00000000-0000-0000-0000-000000000000",
+                "ffffffff-ffff-ffff-ffff-ffffffffffff",
+                "E3BC2F9A-5B1D-4C6E-8F01-23456789ABCD",
+                UUID.randomUUID().toString()
+        };
+        String line = String.join("\t", texts);
+        try (Rf2Tokenizer tokenizer = tokenizer(line + "\n", 256)) {
+            assertTrue(tokenizer.nextLine());
+            for (int field = 0; field < texts.length; field++) {
+                UUID uuid = UUID.fromString(texts[field]);
+                assertEquals(uuid.getMostSignificantBits(), tokenizer.uuidMostSignificantBits(field));
+                assertEquals(uuid.getLeastSignificantBits(), tokenizer.uuidLeastSignificantBits(field));
+            }
+        }
+    }
+
+    @Test
+    void rejectsMalformedUuids() throws Exception {
+        String content = "e3bc2f9a-5b1d-4c6e-8f01-23456789abc\te3bc2f9a5b1d-4c6e-8f01-23456789abcde"
+                + "\tg3bc2f9a-5b1d-4c6e-8f01-23456789abcg\n";
+        try (Rf2Tokenizer tokenizer = tokenizer(content, 256)) {
+            assertTrue(tokenizer.nextLine());
+            for (int field = 0; field < tokenizer.fieldCount(); field++) {
+                int malformed = field;
+                assertThrows(RuntimeException.class, () -> tokenizer.uuidMostSignificantBits(malformed));
+                assertThrows(RuntimeException.class, () -> tokenizer.uuidLeastSignificantBits(malformed));
+            }
+        }
+    }
+
+    @Test
+    void tracksOffsetsAcrossRefillsAndGrowth() throws Exception {
+        String first = "id\teffectiveTime\tactive\r\n";
+        String second = "123456789012345678\t20240901\t1\n";
+        String third = "9\t20240301\t0";
+        try (Rf2Tokenizer tokenizer = tokenizer(first + second + third, 8)) {
+            assertTrue(tokenizer.nextLine());
+            assertEquals(0, tokenizer.lineOffset());
+            assertEquals(3, tokenizer.fieldCount());
+            assertEquals("active", tokenizer.stringField(2));
+            assertEquals(first.length(), tokenizer.nextLineOffset());
+
+            assertTrue(tokenizer.nextLine());
+            assertEquals(first.length(), tokenizer.lineOffset());
+            assertEquals(123456789012345678L, tokenizer.longField(0));
+            assertTrue(tokenizer.activeField(2));
+            assertEquals(second.length() - 1, tokenizer.lineLength());
+
+            assertTrue(tokenizer.nextLine());
+            assertEquals(first.length() + second.length(), tokenizer.lineOffset());
+            assertEquals(9L, tokenizer.longField(0));
+            assertFalse(tokenizer.activeField(2));
+            assertThrows(RuntimeException.class, () -> tokenizer.longField(3));
+
+            assertFalse(tokenizer.nextLine());
+        }
+    }
+
+    @Test
+    void mapsAFile() throws Exception {
+        Path file = directory.resolve("refset.txt");
+        Files.writeString(file, "id\tactive\n1\t1\n2\t0\n");
+        try (Rf2Tokenizer tokenizer = Rf2Tokenizer.mapped(file)) {
+            assertTrue(tokenizer.nextLine());
+            assertTrue(tokenizer.nextLine());
+            assertEquals(1L, tokenizer.longField(0));
+            assertTrue(tokenizer.nextLine());
+            assertEquals(14, tokenizer.lineOffset());
+            assertFalse(tokenizer.activeField(1));
+            assertFalse(tokenizer.nextLine());
+        }
+    }
+}
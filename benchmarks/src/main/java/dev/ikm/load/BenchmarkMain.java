@@ -0,0 +1,36 @@
+package dev.ikm.load;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line, writing results as JSON to {@value #DEFAULT_RESULT_FILE}
+ * unless {@code -rf} or {@code -rff} say otherwise, so runs of different releases can be compared.
+ */
+public class BenchmarkMain {
+    static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()
+                || commandLine.shouldListResultFormats() || commandLine.shouldListWithParams()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        if (commandLine.getResultFormat().orElse(null) == null) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (commandLine.getResult().orElse(null) == null) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        Options built = options.build();
+        new Runner(built).run();
+    }
+}
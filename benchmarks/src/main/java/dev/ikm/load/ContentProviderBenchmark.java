@@ -0,0 +1,125 @@
+package dev.ikm.load;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Reads the same synthetic refset through {@link ContentProvider} from a plain file, an entry of a zip, and an entry
+ * of a zip nested in another zip, as a raw stream and through the {@link Rf2Tokenizer} the import uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ContentProviderBenchmark {
+    public enum Source {
+        PLAIN, ZIP, NESTED_ZIP
+    }
+
+    private static final String ENTRY_NAME =
+            "SnomedCT_InternationalRF2_PRODUCTION/Full/Terminology/sct2_sRefset_OWLExpressionFull_INT.txt";
+    private static final String NESTED_ZIP_NAME = "SnomedCT_InternationalRF2_PRODUCTION.zip";
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"PLAIN", "ZIP", "NESTED_ZIP"})
+    public Source source;
+
+    private Path directory;
+    private ContentProvider contentProvider;
+    private NestedZipArchive nestedArchive;
+    private final byte[] buffer = new byte[1 << 16];
+
+    @Setup(Level.Trial)
+    public void writeSources() throws IOException {
+        directory = Files.createTempDirectory("content-provider-benchmark");
+        Path plain = directory.resolve("sct2_sRefset_OWLExpressionFull_INT.txt");
+        new SyntheticOwlRefset(SyntheticOwlRefset.Shape.MIXED, 2, 1).write(plain, rows);
+        Path zip = directory.resolve("release.zip");
+        writeZip(zip, ENTRY_NAME, plain);
+        Path outerZip = directory.resolve("bundle.zip");
+        writeZip(outerZip, NESTED_ZIP_NAME, zip);
+
+        switch (source) {
+            case PLAIN -> contentProvider = new ContentProvider(plain);
+            case ZIP -> {
+                try (ZipFile zipFile = new ZipFile(zip.toFile(), StandardCharsets.UTF_8)) {
+                    contentProvider = new ContentProvider(zip.toFile(), zipFile.getEntry(ENTRY_NAME));
+                }
+            }
+            case NESTED_ZIP -> {
+                try (ZipFile zipFile = new ZipFile(outerZip.toFile(), StandardCharsets.UTF_8)) {
+                    nestedArchive = NestedZipArchive.open(outerZip.toFile(), zipFile.getEntry(NESTED_ZIP_NAME));
+                }
+                contentProvider = new ContentProvider(NESTED_ZIP_NAME + ":" + ENTRY_NAME, nestedArchive, ENTRY_NAME);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSources() throws IOException {
+        if (nestedArchive != null) {
+            nestedArchive.release();
+            NestedZipArchive.clearCache();
+        }
+        FileTrees.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long readStream() throws Exception {
+        long bytes = 0;
+        try (ContentStreamProvider streamProvider = contentProvider.get();
+             InputStream in = streamProvider.get()) {
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                bytes += read;
+            }
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public long tokenize(RowCounter counter) throws Exception {
+        long fields = 0;
+        try (Rf2Tokenizer tokenizer = contentProvider.tokenizer()) {
+            tokenizer.nextLine();
+            while (tokenizer.nextLine()) {
+                fields += tokenizer.fieldCount();
+                counter.rows++;
+            }
+        }
+        return fields;
+    }
+
+    private static void writeZip(Path zip, String entryName, Path content) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry(entryName));
+            Files.copy(content, (OutputStream) out);
+            out.closeEntry();
+        }
+    }
+}
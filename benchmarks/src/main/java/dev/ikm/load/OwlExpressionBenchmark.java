@@ -0,0 +1,100 @@
+package dev.ikm.load;
+
+import dev.ikm.tinkar.entity.graph.adaptor.axiom.LogicalExpression;
+import dev.ikm.tinkar.ext.lang.owl.SctOwlUtilities;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts representative OWL axioms the way stated axiom generation does: lexing an axiom into public id form,
+ * building a {@link LogicalExpression} with {@link SctOwlUtilities#sctToLogicalExpression(String, String)}, and both
+ * together through {@link ImportAndTransform#logicalExpression(Iterable)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OwlExpressionBenchmark {
+    private static final int AXIOMS = 1024;
+
+    @Param({"SIMPLE", "PRIMITIVE_WITH_ROLES", "DEFINED", "PROPERTY"})
+    public SyntheticOwlRefset.Shape shape;
+
+    private List<String> axioms;
+    private List<String> classInputs;
+    private List<String> propertyInputs;
+
+    /**
+     * Splits each axiom into the class and property builder input the way
+     * {@link ImportAndTransform#logicalExpression(Iterable)} does, so a property axiom without a property chain is
+     * also given to the class builder restated as a class axiom.
+     */
+    @Setup(Level.Trial)
+    public void generateAxioms(TinkarState tinkar) {
+        axioms = new SyntheticOwlRefset(shape, 1, 1).axioms(AXIOMS);
+        classInputs = new ArrayList<>(AXIOMS);
+        propertyInputs = new ArrayList<>(AXIOMS);
+        OwlAxiomLexer lexer = new OwlAxiomLexer();
+        for (String axiom : axioms) {
+            StringBuilder classInput = new StringBuilder();
+            StringBuilder propertyInput = new StringBuilder();
+            lexer.lex(axiom);
+            if (lexer.mentionsProperty()) {
+                lexer.appendPublicIdForm(propertyInput.append(" "));
+                if (!lexer.hasPropertyChain()) {
+                    lexer.appendAsClassAxiom(classInput.append(" "));
+                }
+            } else {
+                lexer.appendPublicIdForm(classInput.append(" "));
+            }
+            classInputs.add(classInput.toString());
+            propertyInputs.add(propertyInput.toString());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private final OwlAxiomLexer lexer = new OwlAxiomLexer();
+        private final StringBuilder builder = new StringBuilder(512);
+        private int next;
+
+        int next() {
+            return next++ & (AXIOMS - 1);
+        }
+    }
+
+    @Benchmark
+    public int lexToPublicIdForm(Cursor cursor) {
+        cursor.builder.setLength(0);
+        cursor.lexer.lex(axioms.get(cursor.next())).appendPublicIdForm(cursor.builder);
+        return cursor.builder.length();
+    }
+
+    @Benchmark
+    public LogicalExpression sctToLogicalExpression(Cursor cursor) throws IOException {
+        int next = cursor.next();
+        return SctOwlUtilities.sctToLogicalExpression(classInputs.get(next), propertyInputs.get(next));
+    }
+
+    @Benchmark
+    public LogicalExpression logicalExpression(Cursor cursor) {
+        return ImportAndTransform.logicalExpression(List.of(axioms.get(cursor.next())));
+    }
+}
@@ -0,0 +1,139 @@
+package dev.ikm.load;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a synthetic OWL refset file the way the import reader stage does: splitting lines, parsing every field into
+ * {@link OwlRefsetBatch}es, and grouping the rows of each member; and fills the same batches from the file's
+ * {@link OwlRefsetColumnCache}, as runs after the first do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class Rf2TokenizerBenchmark {
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"MIXED", "SIMPLE", "DEFINED"})
+    public SyntheticOwlRefset.Shape shape;
+
+    @Param({"2"})
+    public int versionsPerMember;
+
+    private Path directory;
+    private Path file;
+    private OwlRefsetColumnCache cache;
+
+    @Setup(Level.Trial)
+    public void writeRefset() throws Exception {
+        directory = Files.createTempDirectory("tokenizer-benchmark");
+        file = directory.resolve("sct2_sRefset_OWLExpressionFull_INT.txt");
+        new SyntheticOwlRefset(shape, versionsPerMember, 1).write(file, rows);
+        cache = new OwlRefsetColumnCache(directory.resolve("sct2_sRefset_OWLExpressionFull_INT.columns"), 0,
+                Files.size(file), true);
+        try (OwlRefsetRows refsetRows = cache.writeThrough(textRows())) {
+            while (refsetRows.nextRow()) {
+                // written as it is read
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteRefset() throws IOException {
+        FileTrees.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long splitLines(RowCounter counter) throws Exception {
+        long fields = 0;
+        try (Rf2Tokenizer tokenizer = Rf2Tokenizer.mapped(file)) {
+            tokenizer.nextLine();
+            while (tokenizer.nextLine()) {
+                fields += tokenizer.fieldCount();
+                counter.rows++;
+            }
+        }
+        return fields;
+    }
+
+    @Benchmark
+    public void parseFields(RowCounter counter, Blackhole blackhole) throws Exception {
+        try (OwlRefsetRows refsetRows = textRows()) {
+            fillBatches(refsetRows, counter, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void readColumnCache(RowCounter counter, Blackhole blackhole) throws Exception {
+        try (OwlRefsetRows refsetRows = cache.open().orElseThrow()) {
+            fillBatches(refsetRows, counter, blackhole);
+        }
+    }
+
+    @Benchmark
+    public long groupMembers(RowCounter counter) throws Exception {
+        RefsetMemberGrouping grouping = new RefsetMemberGrouping();
+        OwlRefsetBatch batch = new OwlRefsetBatch(1000);
+        long members = 0;
+        try (OwlRefsetRows refsetRows = textRows()) {
+            while (refsetRows.nextRow()) {
+                if (grouping.startsNewMember(refsetRows) && batch.isFull()) {
+                    members += countMembers(batch);
+                    batch.clear();
+                }
+                batch.add(refsetRows);
+                counter.rows++;
+            }
+        }
+        return members + countMembers(batch);
+    }
+
+    private OwlRefsetRows textRows() throws IOException {
+        Rf2Tokenizer tokenizer = Rf2Tokenizer.mapped(file);
+        tokenizer.nextLine();
+        return new TokenizedOwlRefsetRows(List.of(Rf2RowReader.fields().read(tokenizer)), tokenizer, null);
+    }
+
+    private static void fillBatches(OwlRefsetRows refsetRows, RowCounter counter, Blackhole blackhole) throws IOException {
+        OwlRefsetBatch batch = new OwlRefsetBatch(1000);
+        while (refsetRows.nextRow()) {
+            if (batch.isFull()) {
+                blackhole.consume(batch);
+                batch.clear();
+            }
+            batch.add(refsetRows);
+            counter.rows++;
+        }
+        blackhole.consume(batch);
+    }
+
+    private static long countMembers(OwlRefsetBatch batch) {
+        long members = 0;
+        for (int from = 0; from < batch.size(); from = batch.memberEnd(from)) {
+            members++;
+        }
+        return members;
+    }
+}
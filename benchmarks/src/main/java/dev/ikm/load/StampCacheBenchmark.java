@@ -0,0 +1,86 @@
+package dev.ikm.load;
+
+import dev.ikm.tinkar.common.id.PublicId;
+import dev.ikm.tinkar.entity.StampEntity;
+import dev.ikm.tinkar.entity.transaction.Transaction;
+import dev.ikm.tinkar.terms.State;
+import dev.ikm.tinkar.terms.TinkarTerm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares getting a stamp for each refset row from the {@link StampCache} with creating one through the
+ * {@link Transaction}, the way the import did before stamps were cached. Rows cycle through a release's worth of
+ * effective times and both states.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StampCacheBenchmark {
+    private static final long FIRST_RELEASE = 1564531200000L; // 2019-07-31
+    private static final long DAY = 86_400_000L;
+    private static final int RELEASES = 12;
+
+    private final PublicId authorId = TinkarTerm.USER.publicId();
+    private final PublicId pathId = TinkarTerm.DEVELOPMENT_PATH.publicId();
+    private final PublicId moduleId = TinkarTerm.SOLOR_MODULE.publicId();
+    private int moduleNid;
+    private Transaction transaction;
+    private StampCache stamps;
+
+    @Setup(Level.Iteration)
+    public void startTransaction(TinkarState tinkar) {
+        moduleNid = TinkarTerm.SOLOR_MODULE.nid();
+        transaction = Transaction.make();
+        stamps = new StampCache(transaction, authorId, pathId);
+    }
+
+    @TearDown(Level.Iteration)
+    public void cancelTransaction() {
+        transaction.cancel();
+    }
+
+    @org.openjdk.jmh.annotations.State(Scope.Thread)
+    public static class Row {
+        private int row;
+
+        State state() {
+            return (row & 1) == 0 ? State.ACTIVE : State.INACTIVE;
+        }
+
+        long effectiveTime() {
+            return FIRST_RELEASE + (row++ % RELEASES) * 182 * DAY;
+        }
+    }
+
+    @Benchmark
+    public StampEntity cachedStamp(Row row) {
+        return stamps.stamp(row.state(), row.effectiveTime(), moduleNid, moduleId);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public StampEntity cachedStampContended(Row row) {
+        return stamps.stamp(row.state(), row.effectiveTime(), moduleNid, moduleId);
+    }
+
+    @Benchmark
+    public StampEntity transactionStamp(Row row) {
+        return transaction.getStamp(row.state(), row.effectiveTime(), authorId, moduleId, pathId);
+    }
+}
@@ -0,0 +1,210 @@
+package dev.ikm.load;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Generates RF2 OWL expression refset content with the columns, identifier formats and axiom shapes of the SNOMED CT
+ * International release, so the import and transform paths can be measured without a release zip.
+ * <p>
+ * Output is deterministic for a given seed. Each member gets {@code versionsPerMember} consecutive rows with
+ * increasing effective times, the way a Full file lists them; the last version of every tenth member is inactive.
+ */
+public class SyntheticOwlRefset {
+    static final String HEADER = "id\teffectiveTime\tactive\tmoduleId\trefsetId\treferencedComponentId\towlExpression";
+    static final long CORE_MODULE = 900000000000207008L;
+    static final long OWL_AXIOM_REFSET = 733073007L;
+
+    private static final String[] EFFECTIVE_TIMES = {"20190731", "20200131", "20200731", "20210131", "20210731",
+            "20220131", "20220731", "20230131", "20230731", "20240101", "20240701", "20241001"};
+    private static final long[] ATTRIBUTES = {116680003L, 363698007L, 116676008L, 246075003L, 370135005L, 127489000L,
+            411116001L, 762949000L};
+
+    /**
+     * The kinds of axiom found in the refset, from the plain is-a axioms that make up most of it to the property
+     * axioms of the concept model.
+     */
+    public enum Shape {
+        /** {@code SubClassOf(:child :parent)} */
+        SIMPLE,
+        /** {@code SubClassOf} with an intersection of parents and role groups. */
+        PRIMITIVE_WITH_ROLES,
+        /** {@code EquivalentClasses} with nested role groups. */
+        DEFINED,
+        /** {@code SubObjectPropertyOf}, {@code TransitiveObjectProperty} and property chains. */
+        PROPERTY,
+        /** The proportions of the International release: mostly simple and primitive axioms. */
+        MIXED
+    }
+
+    private final SplittableRandom random;
+    private final Shape shape;
+    private final int versionsPerMember;
+
+    public SyntheticOwlRefset(Shape shape, int versionsPerMember, long seed) {
+        this.random = new SplittableRandom(seed);
+        this.shape = shape;
+        this.versionsPerMember = versionsPerMember;
+    }
+
+    /**
+     * Writes a refset file with a header line and {@code rows} data rows.
+     */
+    public void write(Path file, int rows) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            write(writer, rows);
+        }
+    }
+
+    public void write(Writer writer, int rows) throws IOException {
+        writer.write(HEADER);
+        writer.write("\r\n");
+        int row = 0;
+        while (row < rows) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            long concept = sctid();
+            int versions = Math.min(versionsPerMember, rows - row);
+            int firstTime = random.nextInt(EFFECTIVE_TIMES.length - versions + 1);
+            boolean retired = random.nextInt(10) == 0;
+            for (int version = 0; version < versions; version++) {
+                boolean active = !(retired && version == versions - 1 && versions > 1);
+                writer.write(id.toString());
+                writer.write('\t');
+                writer.write(EFFECTIVE_TIMES[firstTime + version]);
+                writer.write(active ? "\t1\t" : "\t0\t");
+                writer.write(Long.toString(CORE_MODULE));
+                writer.write('\t');
+                writer.write(Long.toString(OWL_AXIOM_REFSET));
+                writer.write('\t');
+                writer.write(Long.toString(concept));
+                writer.write('\t');
+                writer.write(axiom(concept));
+                writer.write("\r\n");
+            }
+            row += versions;
+        }
+    }
+
+    /**
+     * @return {@code count} axioms of the generator's shape
+     */
+    public List<String> axioms(int count) {
+        List<String> axioms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            axioms.add(axiom(sctid()));
+        }
+        return axioms;
+    }
+
+    String axiom(long concept) {
+        Shape axiomShape = shape;
+        if (axiomShape == Shape.MIXED) {
+            int choice = random.nextInt(100);
+            axiomShape = choice < 45 ? Shape.SIMPLE : choice < 80 ? Shape.PRIMITIVE_WITH_ROLES
+                    : choice < 99 ? Shape.DEFINED : Shape.PROPERTY;
+        }
+        StringBuilder axiom = new StringBuilder(256);
+        switch (axiomShape) {
+            case SIMPLE -> axiom.append("SubClassOf(:").append(concept).append(" :").append(sctid()).append(')');
+            case PRIMITIVE_WITH_ROLES -> {
+                axiom.append("SubClassOf(:").append(concept).append(' ');
+                intersection(axiom, 1 + random.nextInt(2), 1 + random.nextInt(3));
+                axiom.append(')');
+            }
+            case DEFINED -> {
+                axiom.append("EquivalentClasses(:").append(concept).append(' ');
+                intersection(axiom, 1 + random.nextInt(2), 2 + random.nextInt(4));
+                axiom.append(')');
+            }
+            case PROPERTY -> {
+                switch (random.nextInt(3)) {
+                    case 0 -> axiom.append("SubObjectPropertyOf(:").append(concept).append(" :762705008)");
+                    case 1 -> axiom.append("TransitiveObjectProperty(:").append(concept).append(')');
+                    default -> axiom.append("SubObjectPropertyOf(ObjectPropertyChain(:").append(concept)
+                            .append(" :738774007) :").append(concept).append(')');
+                }
+            }
+            default -> throw new IllegalStateException(axiomShape.name());
+        }
+        return axiom.toString();
+    }
+
+    private void intersection(StringBuilder axiom, int parents, int roleGroups) {
+        axiom.append("ObjectIntersectionOf(");
+        for (int i = 0; i < parents; i++) {
+            axiom.append(':').append(sctid()).append(' ');
+        }
+        for (int group = 0; group < roleGroups; group++) {
+            if (group > 0) {
+                axiom.append(' ');
+            }
+            axiom.append("ObjectSomeValuesFrom(:609096000 ");
+            int roles = 1 + random.nextInt(3);
+            if (roles > 1) {
+                axiom.append("ObjectIntersectionOf(");
+            }
+            for (int role = 0; role < roles; role++) {
+                if (role > 0) {
+                    axiom.append(' ');
+                }
+                axiom.append("ObjectSomeValuesFrom(:").append(ATTRIBUTES[random.nextInt(ATTRIBUTES.length)])
+                        .append(" :").append(sctid()).append(')');
+            }
+            if (roles > 1) {
+                axiom.append(')');
+            }
+            axiom.append(')');
+        }
+        axiom.append(')');
+    }
+
+    /**
+     * @return a concept SCTID: an item number, the core namespace partition {@code 00} and a Verhoeff check digit
+     */
+    long sctid() {
+        long item = 10_000 + random.nextLong(1_000_000_000L);
+        String withoutCheck = item + "00";
+        return Long.parseLong(withoutCheck + Verhoeff.checkDigit(withoutCheck));
+    }
+
+    /**
+     * Writes a refset file for use outside the benchmarks: {@code <file> <rows> [shape] [versionsPerMember] [seed]}.
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args[0]);
+        int rows = Integer.parseInt(args[1]);
+        Shape shape = args.length > 2 ? Shape.valueOf(args[2]) : Shape.MIXED;
+        int versions = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        new SyntheticOwlRefset(shape, versions, seed).write(file, rows);
+    }
+
+    private static final class Verhoeff {
+        private static final int[][] D = {
+                {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, {1, 2, 3, 4, 0, 6, 7, 8, 9, 5}, {2, 3, 4, 0, 1, 7, 8, 9, 5, 6},
+                {3, 4, 0, 1, 2, 8, 9, 5, 6, 7}, {4, 0, 1, 2, 3, 9, 5, 6, 7, 8}, {5, 9, 8, 7, 6, 0, 4, 3, 2, 1},
+                {6, 5, 9, 8, 7, 1, 0, 4, 3, 2}, {7, 6, 5, 9, 8, 2, 1, 0, 4, 3}, {8, 7, 6, 5, 9, 3, 2, 1, 0, 4},
+                {9, 8, 7, 6, 5, 4, 3, 2, 1, 0}};
+        private static final int[][] P = {
+                {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, {1, 5, 7, 6, 2, 8, 3, 0, 9, 4}, {5, 8, 0, 3, 7, 9, 6, 1, 4, 2},
+                {8, 9, 1, 6, 0, 4, 3, 5, 2, 7}, {9, 4, 5, 3, 1, 2, 6, 8, 7, 0}, {4, 2, 8, 6, 5, 7, 3, 9, 0, 1},
+                {2, 7, 9, 3, 8, 0, 6, 4, 1, 5}, {7, 0, 4, 6, 9, 1, 3, 2, 5, 8}};
+        private static final int[] INV = {0, 4, 3, 2, 1, 5, 6, 7, 8, 9};
+
+        static int checkDigit(String number) {
+            int c = 0;
+            for (int i = 0; i < number.length(); i++) {
+                c = D[c][P[(i + 1) % 8][number.charAt(number.length() - i - 1) - '0']];
+            }
+            return INV[c];
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package dev.ikm.load;
+
+import dev.ikm.tinkar.common.service.PrimitiveData;
+import dev.ikm.tinkar.common.service.ServiceKeys;
+import dev.ikm.tinkar.common.service.ServiceProperties;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Starts an empty in-memory data store for the benchmarks that assign nids or create stamps. Select another
+ * controller with {@value #CONTROLLER_PROPERTY}.
+ */
+@State(Scope.Benchmark)
+public class TinkarState {
+    static final String CONTROLLER_PROPERTY = "benchmark.controller";
+
+    private Path dataStoreRoot;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        dataStoreRoot = Files.createTempDirectory("benchmark-store");
+        ServiceProperties.set(ServiceKeys.DATA_STORE_ROOT, dataStoreRoot.toFile());
+        PrimitiveData.selectControllerByName(System.getProperty(CONTROLLER_PROPERTY, "Load Ephemeral Store"));
+        PrimitiveData.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        PrimitiveData.stop();
+        FileTrees.deleteRecursively(dataStoreRoot);
+    }
+}